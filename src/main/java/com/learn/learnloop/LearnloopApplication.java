@@ -2,8 +2,10 @@ package com.learn.learnloop;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class LearnloopApplication {
     public static void main(String[] args) {
         SpringApplication.run(LearnloopApplication.class, args);
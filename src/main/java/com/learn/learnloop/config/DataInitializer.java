@@ -1,12 +1,25 @@
 package com.learn.learnloop.config;
 
+import com.learn.learnloop.model.Quiz;
 import com.learn.learnloop.model.User;
 import com.learn.learnloop.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.ArithmeticOperators;
+import org.springframework.data.mongodb.core.aggregation.ArrayOperators;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.aggregation.ConvertOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
 
+import javax.annotation.PostConstruct;
+import java.util.Collections;
+
 @Component
 public class DataInitializer implements CommandLineRunner {
 
@@ -16,6 +29,46 @@ public class DataInitializer implements CommandLineRunner {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    /**
+     * Backfill fields added to existing quiz documents; runs before the web server accepts requests
+     */
+    @PostConstruct
+    public void backfillQuizFields() {
+        // questionCount lets list views skip the questions array
+        long counted = mongoTemplate.updateMulti(
+                Query.query(Criteria.where("questionCount").exists(false)),
+                AggregationUpdate.update().set("questionCount").toValue(ArrayOperators.Size.lengthOfArray(
+                        ConditionalOperators.ifNull("questions").then(Collections.emptyList()))),
+                "quizzes").getModifiedCount();
+        if (counted > 0) {
+            System.out.println("Backfilled questionCount on " + counted + " quizzes");
+        }
+
+        // scoreSum replaces the stored averageScore so statistics can be kept with $inc
+        long summed = mongoTemplate.updateMulti(
+                Query.query(Criteria.where("scoreSum").exists(false)),
+                AggregationUpdate.update().set("scoreSum").toValue(ConvertOperators.ToLong.toLong(
+                        ArithmeticOperators.Round.roundValueOf(
+                                ArithmeticOperators.Multiply.valueOf(ConditionalOperators.ifNull("averageScore").then(0))
+                                        .multiplyBy(ConditionalOperators.ifNull("totalAttempts").then(0))))),
+                "quizzes").getModifiedCount();
+        if (summed > 0) {
+            System.out.println("Backfilled scoreSum on " + summed + " quizzes");
+        }
+
+        // version is the optimistic lock checked by quiz edits
+        long versioned = mongoTemplate.updateMulti(
+                Query.query(Criteria.where("version").exists(false)),
+                new Update().set("version", 0L),
+                "quizzes").getModifiedCount();
+        if (versioned > 0) {
+            System.out.println("Backfilled version on " + versioned + " quizzes");
+        }
+    }
+
     @Override
     public void run(String... args) {
         // Create default admin user if it doesn't exist
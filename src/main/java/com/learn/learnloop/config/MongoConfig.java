@@ -9,10 +9,12 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.mongodb.config.AbstractMongoClientConfiguration;
-import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions.MongoConverterConfigurationAdapter;
 import org.springframework.data.mongodb.repository.config.EnableMongoRepositories;
 import org.springframework.lang.NonNull;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.concurrent.TimeUnit;
 
 @Configuration
@@ -65,8 +67,24 @@ public class MongoConfig extends AbstractMongoClientConfiguration {
         return MongoClients.create(mongoClientSettings);
     }
     
-    @Bean
-    public MongoTemplate mongoTemplate() {
-        return new MongoTemplate(mongoClient(), getDatabaseName());
+    // The MongoTemplate bean comes from AbstractMongoClientConfiguration so that it shares the
+    // mapping context below (index creation, custom conversions)
+    
+    @Override
+    @NonNull
+    protected Collection<String> getMappingBasePackages() {
+        return Collections.singleton("com.learn.learnloop.model");
+    }
+    
+    @Override
+    protected void configureConverters(@NonNull MongoConverterConfigurationAdapter adapter) {
+        // Option index lists are stored as bitmasks; legacy string lists are still read
+        adapter.registerConverters(OptionMaskConverters.all());
+    }
+    
+    @Override
+    protected boolean autoIndexCreation() {
+        // Create the @Indexed/@CompoundIndex definitions declared on the model classes
+        return true;
     }
 }
\ No newline at end of file
@@ -0,0 +1,147 @@
+package com.learn.learnloop.config;
+
+import com.learn.learnloop.model.OptionMask;
+import com.learn.learnloop.model.Quiz;
+import com.learn.learnloop.model.QuizAttempt;
+
+import org.bson.Document;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.convert.ReadingConverter;
+import org.springframework.data.convert.WritingConverter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Mongo converters that store correct and selected option indices as bitmasks (correctMask,
+ * selectedMask) instead of string lists, while still reading documents in the legacy
+ * correctOptions/selectedOptions form. The Java model and REST shape are unchanged.
+ * <p>
+ * With these converters Question and QuestionResponse count as simple types, so Spring Data no
+ * longer maps paths inside them: queries and projections must name the stored fields
+ * (questions._id, not questions.id).
+ */
+public final class OptionMaskConverters {
+
+    private OptionMaskConverters() {
+    }
+
+    public static List<Converter<?, ?>> all() {
+        List<Converter<?, ?>> converters = new ArrayList<>();
+        converters.add(QuestionWriter.INSTANCE);
+        converters.add(QuestionReader.INSTANCE);
+        converters.add(QuestionResponseWriter.INSTANCE);
+        converters.add(QuestionResponseReader.INSTANCE);
+        return converters;
+    }
+
+    @WritingConverter
+    public enum QuestionWriter implements Converter<Quiz.Question, Document> {
+        INSTANCE;
+
+        @Override
+        public Document convert(Quiz.Question question) {
+            Document document = new Document();
+            // Embedded "id" properties are stored as _id by the default mapping; keep that
+            putIfNotNull(document, "_id", question.getId());
+            putIfNotNull(document, "text", question.getText());
+            putIfNotNull(document, "type", question.getType());
+            putIfNotNull(document, "options", question.getOptions());
+            putOptions(document, "correctMask", "correctOptions", question.getCorrectOptions());
+            return document;
+        }
+    }
+
+    @ReadingConverter
+    public enum QuestionReader implements Converter<Document, Quiz.Question> {
+        INSTANCE;
+
+        @Override
+        public Quiz.Question convert(Document document) {
+            Quiz.Question question = new Quiz.Question();
+            Object id = document.containsKey("_id") ? document.get("_id") : document.get("id");
+            question.setId(id != null ? id.toString() : null);
+            question.setText(document.getString("text"));
+            question.setType(document.getString("type"));
+            List<String> options = readList(document, "options");
+            if (options != null) {
+                question.setOptions(options);
+            }
+            List<String> correctOptions = readOptions(document, "correctMask", "correctOptions");
+            if (correctOptions != null) {
+                question.setCorrectOptions(correctOptions);
+            }
+            return question;
+        }
+    }
+
+    @WritingConverter
+    public enum QuestionResponseWriter implements Converter<QuizAttempt.QuestionResponse, Document> {
+        INSTANCE;
+
+        @Override
+        public Document convert(QuizAttempt.QuestionResponse response) {
+            Document document = new Document();
+            putIfNotNull(document, "questionId", response.getQuestionId());
+            putOptions(document, "selectedMask", "selectedOptions", response.getSelectedOptions());
+            document.put("correct", response.isCorrect());
+            return document;
+        }
+    }
+
+    @ReadingConverter
+    public enum QuestionResponseReader implements Converter<Document, QuizAttempt.QuestionResponse> {
+        INSTANCE;
+
+        @Override
+        public QuizAttempt.QuestionResponse convert(Document document) {
+            QuizAttempt.QuestionResponse response = new QuizAttempt.QuestionResponse();
+            response.setQuestionId(document.getString("questionId"));
+            List<String> selectedOptions = readOptions(document, "selectedMask", "selectedOptions");
+            if (selectedOptions != null) {
+                response.setSelectedOptions(selectedOptions);
+            }
+            response.setCorrect(Boolean.TRUE.equals(document.getBoolean("correct")));
+            return response;
+        }
+    }
+
+    private static void putIfNotNull(Document document, String key, Object value) {
+        if (value != null) {
+            document.put(key, value);
+        }
+    }
+
+    private static void putOptions(Document document, String maskKey, String listKey, List<String> options) {
+        if (options == null) {
+            return;
+        }
+        Long mask = OptionMask.encode(options);
+        if (mask != null) {
+            document.put(maskKey, OptionMask.toBson(mask));
+        } else {
+            document.put(listKey, options);
+        }
+    }
+
+    private static List<String> readOptions(Document document, String maskKey, String listKey) {
+        Object mask = document.get(maskKey);
+        if (mask instanceof Number) {
+            return OptionMask.decode(((Number) mask).longValue());
+        }
+        return readList(document, listKey);
+    }
+
+    private static List<String> readList(Document document, String key) {
+        Object value = document.get(key);
+        if (!(value instanceof List)) {
+            return null;
+        }
+        List<?> values = (List<?>) value;
+        List<String> strings = new ArrayList<>(values.size());
+        for (Object element : values) {
+            strings.add(element != null ? element.toString() : null);
+        }
+        return strings;
+    }
+}
@@ -0,0 +1,21 @@
+package com.learn.learnloop.config;
+
+import com.learn.learnloop.security.RateLimitFilter;
+
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class RateLimitConfig {
+
+    // Runs just before the Spring Security filter chain, on the limited paths only
+    @Bean
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilterRegistration(RateLimitFilter filter) {
+        FilterRegistrationBean<RateLimitFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 1);
+        registration.addUrlPatterns("/api/auth/login", "/api/auth/signup", "/api/quiz-attempts/start");
+        return registration;
+    }
+}
@@ -1,5 +1,6 @@
 package com.learn.learnloop.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
@@ -43,8 +44,8 @@ public class SecurityConfig {
                 .antMatchers("/api/quizzes/category/**").permitAll()
                 .antMatchers("/api/quizzes/{id}").permitAll()
                 .antMatchers("/api/quizzes/**").authenticated() // Other quiz operations require authentication
+                .antMatchers("/api/quiz-attempts/leaderboard/**").permitAll() // Public leaderboards (must precede the rule below)
                 .antMatchers("/api/quiz-attempts/**").authenticated() // Quiz attempts require authentication
-                .antMatchers("/api/quiz-attempts/leaderboard/**").permitAll() // Public leaderboards
                 .antMatchers("/api/admin/**").hasRole("ADMIN")
                 .anyRequest().permitAll()
             )
@@ -78,8 +79,8 @@ public class SecurityConfig {
         CorsConfiguration configuration = new CorsConfiguration();
         configuration.setAllowedOrigins(List.of("http://localhost:3000"));
         configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS", "PATCH"));
-        configuration.setAllowedHeaders(Arrays.asList("Authorization", "Content-Type", "X-Auth-Token", "Cache-Control", "If-Modified-Since", "X-Requested-With"));
-        configuration.setExposedHeaders(Arrays.asList("X-Auth-Token", "Authorization"));
+        configuration.setAllowedHeaders(Arrays.asList("Authorization", "Content-Type", "X-Auth-Token", "Cache-Control", "If-Modified-Since", "If-None-Match", "X-Requested-With", "Idempotency-Key"));
+        configuration.setExposedHeaders(Arrays.asList("X-Auth-Token", "Authorization", "ETag", "Last-Modified", "Retry-After"));
         configuration.setAllowCredentials(true);
         configuration.setMaxAge(3600L);
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
@@ -87,8 +88,11 @@ public class SecurityConfig {
         return source;
     }
 
+    /**
+     * BCrypt at the configured cost factor; stored hashes with a lower one are upgraded on login
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${app.auth.bcrypt-strength:10}") int strength) {
+        return new BCryptPasswordEncoder(strength);
     }
 }
@@ -0,0 +1,23 @@
+package com.learn.learnloop.config;
+
+import com.learn.learnloop.security.CurrentUserArgumentResolver;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+@Configuration
+public class WebMvcConfig implements WebMvcConfigurer {
+
+    @Autowired
+    private CurrentUserArgumentResolver currentUserArgumentResolver;
+
+    @Override
+    public void addArgumentResolvers(List<HandlerMethodArgumentResolver> resolvers) {
+        // @CurrentUser AuthenticatedUser arguments, read from the security principal
+        resolvers.add(currentUserArgumentResolver);
+    }
+}
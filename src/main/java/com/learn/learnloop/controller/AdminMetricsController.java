@@ -0,0 +1,159 @@
+package com.learn.learnloop.controller;
+
+import com.learn.learnloop.security.AuthenticatedUsers;
+import com.learn.learnloop.security.PasswordHasher;
+import com.learn.learnloop.security.RateLimitFilter;
+import com.learn.learnloop.service.AbandonedAttemptReaper;
+import com.learn.learnloop.service.LeaderboardService;
+import com.learn.learnloop.service.OptionMaskMigration;
+import com.learn.learnloop.service.QuizAttemptDeadlines;
+import com.learn.learnloop.service.QuizJsonCache;
+import com.learn.learnloop.service.QuizService;
+import com.learn.learnloop.service.QuizSnapshotService;
+import com.learn.learnloop.service.QuizStatisticsAggregator;
+import com.learn.learnloop.service.ResponseAutosaveBuffer;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Runtime metrics for admins (access restricted to ROLE_ADMIN in SecurityConfig)
+ */
+@RestController
+@RequestMapping("/api/admin/metrics")
+@CrossOrigin(origins = "${app.cors.allowed-origins}", allowCredentials = "true")
+public class AdminMetricsController {
+
+    @Autowired
+    private QuizService quizService;
+
+    @Autowired
+    private QuizJsonCache quizJsonCache;
+
+    @Autowired
+    private QuizSnapshotService snapshotService;
+
+    @Autowired
+    private QuizStatisticsAggregator statisticsAggregator;
+
+    @Autowired
+    private LeaderboardService leaderboardService;
+
+    @Autowired
+    private QuizAttemptDeadlines attemptDeadlines;
+
+    @Autowired
+    private AbandonedAttemptReaper attemptReaper;
+
+    @Autowired
+    private ResponseAutosaveBuffer autosaveBuffer;
+
+    @Autowired
+    private OptionMaskMigration optionMaskMigration;
+
+    @Autowired
+    private AuthenticatedUsers authenticatedUsers;
+
+    @Autowired
+    private PasswordHasher passwordHasher;
+
+    @Autowired
+    private RateLimitFilter rateLimitFilter;
+
+    /**
+     * Published quiz catalog cache counters
+     */
+    @GetMapping("/quiz-catalog")
+    public ResponseEntity<?> getQuizCatalogStats() {
+        return ResponseEntity.ok(quizService.getCatalogCacheStats());
+    }
+
+    /**
+     * Pre-encoded quiz detail JSON cache counters
+     */
+    @GetMapping("/quiz-json")
+    public ResponseEntity<?> getQuizJsonStats() {
+        return ResponseEntity.ok(quizJsonCache.getStats());
+    }
+
+    /**
+     * Quiz snapshot cache counters (answer keys and question texts per content version)
+     */
+    @GetMapping("/quiz-snapshots")
+    public ResponseEntity<?> getQuizSnapshotStats() {
+        return ResponseEntity.ok(snapshotService.getStats());
+    }
+
+    /**
+     * Write-behind quiz statistics flush counters
+     */
+    @GetMapping("/quiz-statistics")
+    public ResponseEntity<?> getQuizStatisticsStats() {
+        return ResponseEntity.ok(statisticsAggregator.getStats());
+    }
+
+    /**
+     * In-memory leaderboard sizes and load state
+     */
+    @GetMapping("/leaderboards")
+    public ResponseEntity<?> getLeaderboardStats() {
+        return ResponseEntity.ok(leaderboardService.getStats());
+    }
+
+    /**
+     * Armed attempt deadlines and auto-submissions
+     */
+    @GetMapping("/attempt-deadlines")
+    public ResponseEntity<?> getAttemptDeadlineStats() {
+        return ResponseEntity.ok(attemptDeadlines.getStats());
+    }
+
+    /**
+     * Abandoned attempt cleanup: documents reaped and time spent
+     */
+    @GetMapping("/attempt-reaper")
+    public ResponseEntity<?> getAttemptReaperStats() {
+        return ResponseEntity.ok(attemptReaper.getStats());
+    }
+
+    /**
+     * Autosave edits received versus positional writes issued
+     */
+    @GetMapping("/autosave")
+    public ResponseEntity<?> getAutosaveStats() {
+        return ResponseEntity.ok(autosaveBuffer.getStats());
+    }
+
+    /**
+     * Option bitmask migration progress and bytes saved on rewritten documents
+     */
+    @GetMapping("/option-masks")
+    public ResponseEntity<?> getOptionMaskMigrationStats() {
+        return ResponseEntity.ok(optionMaskMigration.getStats());
+    }
+
+    /**
+     * Requests answered from the session principal versus ones that reloaded the user
+     */
+    @GetMapping("/auth-principals")
+    public ResponseEntity<?> getAuthPrincipalStats() {
+        return ResponseEntity.ok(authenticatedUsers.getStats());
+    }
+
+    /**
+     * Password hashing pool: queue depth, rejections and hash latency
+     */
+    @GetMapping("/password-hashing")
+    public ResponseEntity<?> getPasswordHashingStats() {
+        return ResponseEntity.ok(passwordHasher.getStats());
+    }
+
+    /**
+     * Requests allowed and rejected per rate-limited route, and keys currently tracked
+     */
+    @GetMapping("/rate-limits")
+    public ResponseEntity<?> getRateLimitStats() {
+        return ResponseEntity.ok(rateLimitFilter.getStats());
+    }
+}
@@ -1,27 +1,29 @@
 package com.learn.learnloop.controller;
 
 import com.learn.learnloop.model.User;
-import com.learn.learnloop.repository.UserRepository;
+import com.learn.learnloop.security.AuthenticatedUser;
+import com.learn.learnloop.security.CurrentUser;
+import com.learn.learnloop.security.PasswordHasher;
 import com.learn.learnloop.service.AuthService;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import javax.servlet.http.HttpSession;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.context.HttpSessionSecurityContextRepository;
 import org.springframework.security.web.context.SecurityContextRepository;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @RestController
 @RequestMapping("/api/auth")
@@ -31,82 +33,65 @@ public class AuthController {
     @Autowired
     private AuthService authService;
 
-    @Autowired
-    private UserRepository userRepository;
-
-    @Autowired
-    private PasswordEncoder passwordEncoder;
+    // Suggested wait before retrying when the password hashing queue is full
+    @Value("${app.auth.hashing.retry-after-seconds:1}")
+    private int retryAfterSeconds;
 
     private final SecurityContextRepository securityContextRepository = 
         new HttpSessionSecurityContextRepository();
 
     @PostMapping("/signup")
-    public ResponseEntity<?> signup(@RequestBody User user) {
+    public CompletableFuture<ResponseEntity<?>> signup(@RequestBody User user) {
         try {
-            Optional<User> existingUser = userRepository.findByUsername(user.getUsername());
-            if (existingUser.isPresent()) {
-                return ResponseEntity.badRequest().body(Map.of("error", "Username already exists"));
-            }
-
-            user.setPassword(passwordEncoder.encode(user.getPassword()));
-            if (user.getRole() == null) {
-                user.setRole("USER");
-            }
-
-            User savedUser = userRepository.save(user);
-            
-            Map<String, Object> response = new HashMap<>();
-            response.put("message", "User registered successfully");
-            response.put("userId", savedUser.getId());
-            
-            return ResponseEntity.ok(response);
+            return authService.signup(user).<ResponseEntity<?>>thenApply(savedUser -> {
+                Map<String, Object> response = new HashMap<>();
+                response.put("message", "User registered successfully");
+                response.put("userId", savedUser.getId());
+                
+                return ResponseEntity.ok(response);
+            }).exceptionally(e -> authFailure(e, "Registration failed: "));
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body(Map.of("error", e.getMessage())));
         } catch (Exception e) {
-            return ResponseEntity.status(500).body(Map.of("error", "Registration failed: " + e.getMessage()));
+            return CompletableFuture.completedFuture(authFailure(e, "Registration failed: "));
         }
     }
 
     @PostMapping("/login")
-    public ResponseEntity<?> login(@RequestBody Map<String, String> loginRequest, 
+    public CompletableFuture<ResponseEntity<?>> login(@RequestBody Map<String, String> loginRequest, 
                                   HttpServletRequest request, 
                                   HttpServletResponse response) {
         try {
             String username = loginRequest.get("username");
             String password = loginRequest.get("password");
 
-            Optional<User> userOpt = userRepository.findByUsername(username);
-            if (userOpt.isEmpty() || !passwordEncoder.matches(password, userOpt.get().getPassword())) {
-                return ResponseEntity.status(401).body(Map.of("error", "Invalid credentials"));
-            }
-
-            User user = userOpt.get();
-
-            // Create authentication
-            Authentication auth = new UsernamePasswordAuthenticationToken(
-                user.getUsername(),
-                null,
-                Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + user.getRole()))
-            );
+            return authService.login(username, password).<ResponseEntity<?>>thenApply(user -> {
+                if (user == null) {
+                    return ResponseEntity.status(401).body(Map.of("error", "Invalid credentials"));
+                }
 
-            // Set security context
-            SecurityContext context = SecurityContextHolder.createEmptyContext();
-            context.setAuthentication(auth);
-            SecurityContextHolder.setContext(context);
+                // Create authentication; the principal carries id and role so requests need no user lookup
+                Authentication auth = new AuthenticatedUser(user).toAuthentication();
 
-            // Save to session
-            securityContextRepository.saveContext(context, request, response);
+                // Save to session. This runs on a hashing thread, so the thread's own
+                // SecurityContextHolder is left alone; later requests load the context from the session.
+                SecurityContext context = SecurityContextHolder.createEmptyContext();
+                context.setAuthentication(auth);
+                securityContextRepository.saveContext(context, request, response);
 
-            // Create session
-            HttpSession session = request.getSession(true);
-            session.setAttribute("SPRING_SECURITY_CONTEXT", context);
+                // Create session
+                HttpSession session = request.getSession(true);
+                session.setAttribute("SPRING_SECURITY_CONTEXT", context);
 
-            Map<String, Object> responseData = new HashMap<>();
-            responseData.put("id", user.getId());
-            responseData.put("username", user.getUsername());
-            responseData.put("role", user.getRole());
+                Map<String, Object> responseData = new HashMap<>();
+                responseData.put("id", user.getId());
+                responseData.put("username", user.getUsername());
+                responseData.put("role", user.getRole());
 
-            return ResponseEntity.ok(responseData);
+                return ResponseEntity.ok(responseData);
+            }).exceptionally(e -> authFailure(e, "Login failed: "));
         } catch (Exception e) {
-            return ResponseEntity.status(500).body(Map.of("error", "Login failed: " + e.getMessage()));
+            return CompletableFuture.completedFuture(authFailure(e, "Login failed: "));
         }
     }
 
@@ -125,20 +110,12 @@ public class AuthController {
     }
 
     @GetMapping("/current-user")
-    public ResponseEntity<?> getCurrentUser(Authentication auth) {
+    public ResponseEntity<?> getCurrentUser(@CurrentUser(required = false) AuthenticatedUser user) {
         try {
-            if (auth == null || !auth.isAuthenticated()) {
+            if (user == null) {
                 return ResponseEntity.status(401).body(Map.of("error", "Not authenticated"));
             }
 
-            String username = auth.getName();
-            Optional<User> userOpt = userRepository.findByUsername(username);
-            
-            if (userOpt.isEmpty()) {
-                return ResponseEntity.status(404).body(Map.of("error", "User not found"));
-            }
-
-            User user = userOpt.get();
             Map<String, Object> responseData = new HashMap<>();
             responseData.put("id", user.getId());
             responseData.put("username", user.getUsername());
@@ -149,4 +126,17 @@ public class AuthController {
             return ResponseEntity.status(500).body(Map.of("error", "Failed to get current user: " + e.getMessage()));
         }
     }
+
+    /**
+     * 503 with Retry-After when the hashing queue is full, else a 500 with the given prefix
+     */
+    private ResponseEntity<?> authFailure(Throwable error, String prefix) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof PasswordHasher.Saturated) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                .body(Map.of("error", "Server busy, please retry shortly"));
+        }
+        return ResponseEntity.status(500).body(Map.of("error", prefix + cause.getMessage()));
+    }
 }
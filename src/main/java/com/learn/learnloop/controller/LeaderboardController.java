@@ -0,0 +1,75 @@
+package com.learn.learnloop.controller;
+
+import com.learn.learnloop.dto.LeaderboardEntryDTO;
+import com.learn.learnloop.security.AuthenticatedUser;
+import com.learn.learnloop.security.CurrentUser;
+import com.learn.learnloop.service.LeaderboardService;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Public quiz and category leaderboards, served from memory
+ */
+@RestController
+@RequestMapping("/api/quiz-attempts/leaderboard")
+@CrossOrigin(origins = "${app.cors.allowed-origins}", allowCredentials = "true")
+public class LeaderboardController {
+
+    @Autowired
+    private LeaderboardService leaderboardService;
+    
+    /**
+     * Top users of a quiz by best score, then time spent
+     */
+    @GetMapping("/quiz/{quizId}")
+    public ResponseEntity<?> getQuizLeaderboard(@PathVariable String quizId,
+                                                @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(leaderboardService.getQuizLeaderboard(quizId, limit));
+    }
+    
+    /**
+     * Top users of a category by their best score on any of its quizzes
+     */
+    @GetMapping("/category/{category}")
+    public ResponseEntity<?> getCategoryLeaderboard(@PathVariable String category,
+                                                    @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(leaderboardService.getCategoryLeaderboard(category, limit));
+    }
+    
+    /**
+     * Current user's rank on a quiz
+     */
+    @GetMapping("/quiz/{quizId}/me")
+    public ResponseEntity<?> getMyQuizRank(@PathVariable String quizId, @CurrentUser(required = false) AuthenticatedUser user) {
+        return myRank(user, current -> leaderboardService.getQuizRank(quizId, current.getId()));
+    }
+    
+    /**
+     * Current user's rank in a category
+     */
+    @GetMapping("/category/{category}/me")
+    public ResponseEntity<?> getMyCategoryRank(@PathVariable String category, @CurrentUser(required = false) AuthenticatedUser user) {
+        return myRank(user, current -> leaderboardService.getCategoryRank(category, current.getId()));
+    }
+    
+    private ResponseEntity<?> myRank(AuthenticatedUser user, Function<AuthenticatedUser, LeaderboardEntryDTO> lookup) {
+        // The leaderboard paths are public, so anonymous callers reach this point
+        if (user == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                .body(Map.of("error", "Authentication required"));
+        }
+        
+        LeaderboardEntryDTO entry = lookup.apply(user);
+        if (entry == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(Map.of("error", "No completed attempts on this leaderboard"));
+        }
+        return ResponseEntity.ok(entry);
+    }
+}
@@ -1,20 +1,27 @@
 package com.learn.learnloop.controller;
 
+import com.learn.learnloop.dto.AttemptListParams;
+import com.learn.learnloop.dto.PageResponse;
 import com.learn.learnloop.dto.QuizAttemptDTO;
+import com.learn.learnloop.model.Quiz;
 import com.learn.learnloop.model.QuizAttempt;
-import com.learn.learnloop.model.User;
+import com.learn.learnloop.security.AuthenticatedUser;
+import com.learn.learnloop.security.CurrentUser;
+import com.learn.learnloop.service.AttemptBucketStore;
+import com.learn.learnloop.service.QuizAttemptExportService;
 import com.learn.learnloop.service.QuizAttemptService;
-import com.learn.learnloop.repository.UserRepository;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/quiz-attempts")
@@ -25,20 +32,22 @@ public class QuizAttemptController {
     private QuizAttemptService attemptService;
     
     @Autowired
-    private UserRepository userRepository;
+    private QuizAttemptExportService exportService;
+    
+    @Autowired
+    private AttemptBucketStore bucketStore;
     
     /**
      * Start a quiz attempt
      */
     @PostMapping("/start")
-    public ResponseEntity<?> startQuizAttempt(@RequestBody Map<String, String> payload, Authentication auth) {
+    public ResponseEntity<?> startQuizAttempt(@RequestBody Map<String, String> payload, @CurrentUser AuthenticatedUser user) {
         try {
             String quizId = payload.get("quizId");
             if (quizId == null || quizId.isEmpty()) {
                 return ResponseEntity.badRequest().body(Map.of("error", "Quiz ID is required"));
             }
             
-            User user = getUserFromAuth(auth);
             QuizAttempt attempt = attemptService.startQuizAttempt(quizId, user.getId());
             
             return ResponseEntity.status(HttpStatus.CREATED).body(Map.of(
@@ -59,27 +68,22 @@ public class QuizAttemptController {
     @PostMapping("/{attemptId}/submit")
     public ResponseEntity<?> submitQuizAttempt(
             @PathVariable String attemptId,
-            @RequestBody List<QuizAttempt.QuestionResponse> responses,
-            Authentication auth) {
+            @RequestBody(required = false) List<QuizAttempt.QuestionResponse> responses,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            @CurrentUser AuthenticatedUser user) {
         try {
-            User user = getUserFromAuth(auth);
-            
-            // Verify this attempt belongs to the current user
-            QuizAttempt attempt = attemptService.getAttemptById(attemptId)
-                .orElseThrow(() -> new IllegalArgumentException("Attempt not found"));
-            
-            if (!attempt.getUserId().equals(user.getId())) {
-                return ResponseEntity.status(HttpStatus.FORBIDDEN)
-                    .body(Map.of("error", "You can only submit your own attempts"));
-            }
             
-            QuizAttempt submittedAttempt = attemptService.submitQuizAttempt(attemptId, responses);
+            // Ownership is checked by the service on the same read it scores from
+            QuizAttempt submittedAttempt = attemptService.submitQuizAttempt(attemptId, user.getId(), responses, idempotencyKey);
             QuizAttemptDTO enrichedAttempt = attemptService.enrichQuizAttemptDTO(submittedAttempt);
             
-            // Log the enriched attempt for debugging
-            System.out.println("Enriched attempt: " + enrichedAttempt);
-            
             return ResponseEntity.ok(enrichedAttempt);
+        } catch (SecurityException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                .body(Map.of("error", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(Map.of("error", e.getMessage()));
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
@@ -89,20 +93,50 @@ public class QuizAttemptController {
         }
     }
     
+    /**
+     * Autosave the answer to one question while the attempt is in progress
+     */
+    @PatchMapping("/{attemptId}/responses/{questionId}")
+    public ResponseEntity<?> saveResponse(
+            @PathVariable String attemptId,
+            @PathVariable String questionId,
+            @RequestBody QuizAttempt.QuestionResponse response,
+            @CurrentUser AuthenticatedUser user) {
+        try {
+            attemptService.saveResponse(attemptId, user.getId(), questionId, response.getSelectedOptions());
+            return ResponseEntity.accepted().body(Map.of(
+                "attemptId", attemptId,
+                "questionId", questionId,
+                "message", "Response saved"
+            ));
+        } catch (SecurityException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                .body(Map.of("error", e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(Map.of("error", e.getMessage()));
+        }
+    }
+    
     /**
      * Get attempts by current user
      */
     @GetMapping("/me")
-    public ResponseEntity<?> getMyAttempts(Authentication auth) {
+    public ResponseEntity<?> getMyAttempts(AttemptListParams params, @CurrentUser AuthenticatedUser user) {
         try {
-            User user = getUserFromAuth(auth);
+            if (params.isPaged()) {
+                return ResponseEntity.ok(enrichPage(attemptService.getAttemptPageByUser(user.getId(), null, params)));
+            }
+            
             List<QuizAttempt> attempts = attemptService.getAttemptsByUser(user.getId());
             
-            List<QuizAttemptDTO> enrichedAttempts = attempts.stream()
-                .map(attempt -> attemptService.enrichQuizAttemptDTO(attempt))
-                .collect(Collectors.toList());
+            List<QuizAttemptDTO> enrichedAttempts = attemptService.enrichQuizAttemptDTOs(attempts);
             
             return ResponseEntity.ok(enrichedAttempts);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                 .body(Map.of("error", e.getMessage()));
@@ -113,16 +147,20 @@ public class QuizAttemptController {
      * Get attempts for a specific quiz by current user
      */
     @GetMapping("/me/quiz/{quizId}")
-    public ResponseEntity<?> getMyAttemptsByQuiz(@PathVariable String quizId, Authentication auth) {
+    public ResponseEntity<?> getMyAttemptsByQuiz(@PathVariable String quizId, AttemptListParams params,
+                                                 @CurrentUser AuthenticatedUser user) {
         try {
-            User user = getUserFromAuth(auth);
+            if (params.isPaged()) {
+                return ResponseEntity.ok(enrichPage(attemptService.getAttemptPageByUser(user.getId(), quizId, params)));
+            }
+            
             List<QuizAttempt> attempts = attemptService.getAttemptsByUserAndQuiz(user.getId(), quizId);
             
-            List<QuizAttemptDTO> enrichedAttempts = attempts.stream()
-                .map(attempt -> attemptService.enrichQuizAttemptDTO(attempt))
-                .collect(Collectors.toList());
+            List<QuizAttemptDTO> enrichedAttempts = attemptService.enrichQuizAttemptDTOs(attempts);
             
             return ResponseEntity.ok(enrichedAttempts);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                 .body(Map.of("error", e.getMessage()));
@@ -133,12 +171,11 @@ public class QuizAttemptController {
      * Get a specific attempt
      */
     @GetMapping("/{attemptId}")
-    public ResponseEntity<?> getAttemptById(@PathVariable String attemptId, Authentication auth) {
+    public ResponseEntity<?> getAttemptById(@PathVariable String attemptId, @CurrentUser AuthenticatedUser user) {
         try {
             QuizAttempt attempt = attemptService.getAttemptById(attemptId)
                 .orElseThrow(() -> new IllegalArgumentException("Attempt not found"));
             
-            User user = getUserFromAuth(auth);
             boolean isAdmin = "ADMIN".equals(user.getRole());
             
             // Only the user who made the attempt or an admin can view it
@@ -161,22 +198,26 @@ public class QuizAttemptController {
      * Admin: Get all attempts for a quiz
      */
     @GetMapping("/admin/quiz/{quizId}")
-    public ResponseEntity<?> getAttemptsByQuiz(@PathVariable String quizId, Authentication auth) {
+    public ResponseEntity<?> getAttemptsByQuiz(@PathVariable String quizId, AttemptListParams params,
+                                               @CurrentUser AuthenticatedUser user) {
         try {
             // Verify user is admin
-            User user = getUserFromAuth(auth);
             if (!"ADMIN".equals(user.getRole())) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN)
                     .body(Map.of("error", "Only admins can access this endpoint"));
             }
             
+            if (params.isPaged()) {
+                return ResponseEntity.ok(enrichPage(attemptService.getAttemptPageByQuiz(quizId, params)));
+            }
+            
             List<QuizAttempt> attempts = attemptService.getAttemptsByQuiz(quizId);
             
-            List<QuizAttemptDTO> enrichedAttempts = attempts.stream()
-                .map(attempt -> attemptService.enrichQuizAttemptDTO(attempt))
-                .collect(Collectors.toList());
+            List<QuizAttemptDTO> enrichedAttempts = attemptService.enrichQuizAttemptDTOs(attempts);
             
             return ResponseEntity.ok(enrichedAttempts);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                 .body(Map.of("error", e.getMessage()));
@@ -184,21 +225,93 @@ public class QuizAttemptController {
     }
     
     /**
-     * Helper method to get User from Authentication
+     * Admin: Stream all completed attempts for a quiz as CSV (default) or NDJSON
      */
-    private User getUserFromAuth(Authentication auth) {
-        if (auth == null) {
-            throw new IllegalArgumentException("Authentication required");
+    @GetMapping("/admin/quiz/{quizId}/export")
+    public ResponseEntity<?> exportAttemptsByQuiz(@PathVariable String quizId,
+                                                  @RequestParam(required = false) String format,
+                                                  @CurrentUser AuthenticatedUser user) {
+        try {
+            // Verify user is admin
+            if (!"ADMIN".equals(user.getRole())) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(Map.of("error", "Only admins can access this endpoint"));
+            }
+            
+            String exportFormat = QuizAttemptExportService.normalizeFormat(format);
+            Quiz quiz = exportService.loadQuizHeader(quizId);
+            
+            // Rows are written from the Mongo cursor as they arrive, never collected in memory
+            StreamingResponseBody body = out -> exportService.export(quiz, exportFormat, out);
+            boolean csv = QuizAttemptExportService.FORMAT_CSV.equals(exportFormat);
+            return ResponseEntity.ok()
+                .contentType(csv ? new MediaType("text", "csv", StandardCharsets.UTF_8)
+                                 : new MediaType("application", "x-ndjson", StandardCharsets.UTF_8))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                    "attachment; filename=\"quiz-" + quiz.getId() + "-attempts." + exportFormat + "\"")
+                .body(body);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(Map.of("error", e.getMessage()));
+        }
+    }
+    
+    /**
+     * Admin: Start (or resume) copying older completed attempts into per-user buckets
+     */
+    @PostMapping("/admin/migrations/buckets")
+    public ResponseEntity<?> startBucketMigration(@CurrentUser AuthenticatedUser user) {
+        try {
+            // Verify user is admin
+            if (!"ADMIN".equals(user.getRole())) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(Map.of("error", "Only admins can access this endpoint"));
+            }
+            
+            if (!bucketStore.isBucketed()) {
+                return ResponseEntity.badRequest()
+                    .body(Map.of("error", "Bucketed attempt layout is not enabled"));
+            }
+            if (!bucketStore.startMigration()) {
+                return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Map.of("error", "Bucket migration is already running"));
+            }
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(bucketStore.getMigration());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(Map.of("error", e.getMessage()));
         }
-        
-        String username = auth.getName();
-        User user = userRepository.findByUsername(username)
-            .orElseThrow(() -> new IllegalArgumentException("User not found"));
-        
-        if (user == null) {
-            throw new IllegalArgumentException("User not found");
+    }
+    
+    /**
+     * Admin: Progress of the bucket migration
+     */
+    @GetMapping("/admin/migrations/buckets")
+    public ResponseEntity<?> getBucketMigration(@CurrentUser AuthenticatedUser user) {
+        try {
+            // Verify user is admin
+            if (!"ADMIN".equals(user.getRole())) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(Map.of("error", "Only admins can access this endpoint"));
+            }
+            
+            return ResponseEntity.ok(bucketStore.getMigration());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(Map.of("error", e.getMessage()));
         }
-        
-        return user;
+    }
+    
+    /**
+     * Enrich one page of attempts with a single batched quiz lookup
+     */
+    private PageResponse<QuizAttemptDTO> enrichPage(PageResponse<QuizAttempt> page) {
+        return new PageResponse<>(attemptService.enrichQuizAttemptDTOs(page.getItems()), page.getNextCursor());
     }
 }
\ No newline at end of file
@@ -1,16 +1,28 @@
 package com.learn.learnloop.controller;
 
+import com.learn.learnloop.dto.PageResponse;
+import com.learn.learnloop.dto.QuestionOrderUpdate;
+import com.learn.learnloop.dto.QuestionUpdate;
 import com.learn.learnloop.dto.QuizDTO;
+import com.learn.learnloop.dto.QuizListParams;
+import com.learn.learnloop.dto.QuizMetadataUpdate;
+import com.learn.learnloop.dto.QuizSummaryDTO;
 import com.learn.learnloop.model.Quiz;
-import com.learn.learnloop.model.User;
+import com.learn.learnloop.model.QuizDeletionJob;
+import com.learn.learnloop.security.AuthenticatedUser;
+import com.learn.learnloop.security.CurrentUser;
+import com.learn.learnloop.service.QuizDeletionService;
+import com.learn.learnloop.service.QuizJsonCache;
 import com.learn.learnloop.service.QuizService;
-import com.learn.learnloop.repository.UserRepository;
+import com.learn.learnloop.service.QuizStatisticsAggregator;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.Arrays;
 import java.util.List;
@@ -27,7 +39,13 @@ public class QuizController {
     private QuizService quizService;
     
     @Autowired
-    private UserRepository userRepository;
+    private QuizJsonCache quizJsonCache;
+    
+    @Autowired
+    private QuizStatisticsAggregator statisticsAggregator;
+    
+    @Autowired
+    private QuizDeletionService quizDeletionService;
     
     // List of valid categories
     private static final List<String> VALID_CATEGORIES = Arrays.asList(
@@ -39,26 +57,18 @@ public class QuizController {
      * Get all quizzes (default endpoint)
      */
     @GetMapping
-    public ResponseEntity<?> getQuizzes(Authentication auth) {
+    public ResponseEntity<?> getQuizzes(QuizListParams params, @CurrentUser(required = false) AuthenticatedUser user, WebRequest webRequest) {
         try {
             // If the user is an admin, show all quizzes with correct answers
-            if (auth != null) {
-                try {
-                    User user = getUserFromAuth(auth);
-                    if ("ADMIN".equals(user.getRole())) {
-                        List<Quiz> quizzes = quizService.getAllQuizzes();
-                        return ResponseEntity.ok(quizzes.stream()
-                            .map(quiz -> QuizDTO.fromQuiz(quiz, true))
-                            .collect(Collectors.toList()));
-                    }
-                } catch (Exception e) {
-                    // If auth check fails, fall back to showing only published quizzes
-                }
+            if (user != null && "ADMIN".equals(user.getRole())) {
+                return ResponseEntity.ok(listAllQuizzes(params));
             }
             
             // For non-admin users or unauthenticated users, show only published quizzes
-            List<QuizDTO> quizzes = quizService.getPublishedQuizzes();
-            return ResponseEntity.ok(quizzes);
+            return publishedQuizzesResponse(params, webRequest);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                 .body(Map.of("error", e.getMessage()));
@@ -69,19 +79,18 @@ public class QuizController {
      * Get all quizzes (admin only)
      */
     @GetMapping("/admin")
-    public ResponseEntity<?> getAllQuizzes(Authentication auth) {
+    public ResponseEntity<?> getAllQuizzes(QuizListParams params, @CurrentUser AuthenticatedUser user) {
         try {
             // Check if user is admin
-            User user = getUserFromAuth(auth);
             if (!"ADMIN".equals(user.getRole())) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN)
                     .body(Map.of("error", "Only admins can access this endpoint"));
             }
             
-            List<Quiz> quizzes = quizService.getAllQuizzes();
-            return ResponseEntity.ok(quizzes.stream()
-                .map(quiz -> QuizDTO.fromQuiz(quiz, true))
-                .collect(Collectors.toList()));
+            return ResponseEntity.ok(listAllQuizzes(params));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                 .body(Map.of("error", e.getMessage()));
@@ -92,19 +101,33 @@ public class QuizController {
      * Get quizzes created by current admin
      */
     @GetMapping("/admin/mine")
-    public ResponseEntity<?> getMyQuizzes(Authentication auth) {
+    public ResponseEntity<?> getMyQuizzes(QuizListParams params, @CurrentUser AuthenticatedUser user) {
         try {
             // Check if user is admin
-            User user = getUserFromAuth(auth);
             if (!"ADMIN".equals(user.getRole())) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN)
                     .body(Map.of("error", "Only admins can access this endpoint"));
             }
             
+            if (params.isPaged()) {
+                PageResponse<Quiz> page = quizService.getQuizPageByAdmin(user.getId(), params.getCategory(),
+                    params.getCursor(), params.getLimit(), params.getOrder(), params.isSummary());
+                return ResponseEntity.ok(params.isSummary()
+                    ? page.map(QuizSummaryDTO::fromQuiz)
+                    : page.map(quiz -> QuizDTO.fromQuiz(quiz, true)));
+            }
+            
+            if (params.isSummary()) {
+                return ResponseEntity.ok(quizService.getQuizSummariesByAdmin(user.getId()));
+            }
+            
             List<Quiz> quizzes = quizService.getQuizzesByAdmin(user.getId());
             return ResponseEntity.ok(quizzes.stream()
                 .map(quiz -> QuizDTO.fromQuiz(quiz, true))
                 .collect(Collectors.toList()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                 .body(Map.of("error", e.getMessage()));
@@ -115,10 +138,12 @@ public class QuizController {
      * Get published quizzes (for all users)
      */
     @GetMapping("/public")
-    public ResponseEntity<?> getPublishedQuizzes() {
+    public ResponseEntity<?> getPublishedQuizzes(QuizListParams params, WebRequest webRequest) {
         try {
-            List<QuizDTO> quizzes = quizService.getPublishedQuizzes();
-            return ResponseEntity.ok(quizzes);
+            return publishedQuizzesResponse(params, webRequest);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                 .body(Map.of("error", e.getMessage()));
@@ -129,33 +154,56 @@ public class QuizController {
      * Get quiz by ID
      */
     @GetMapping("/{id}")
-    public ResponseEntity<?> getQuizById(@PathVariable String id, Authentication auth) {
+    public ResponseEntity<?> getQuizById(@PathVariable String id, @CurrentUser(required = false) AuthenticatedUser user, WebRequest webRequest) {
         try {
-            Optional<Quiz> quizOpt = quizService.getQuizById(id);
+            // Answer conditional requests from the version fields alone, without loading questions
+            Optional<Quiz> versionOpt = quizService.getQuizVersion(id);
             
-            if (quizOpt.isEmpty()) {
+            if (versionOpt.isEmpty()) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body(Map.of("error", "Quiz not found"));
             }
             
-            Quiz quiz = quizOpt.get();
+            Quiz version = versionOpt.get();
             
             // Determine if answers should be included
-            boolean includeAnswers = false;
-            if (auth != null) {
-                User user = getUserFromAuth(auth);
-                // Include answers if user is admin
-                includeAnswers = "ADMIN".equals(user.getRole());
-            }
+            // Include answers if user is admin
+            boolean includeAnswers = user != null && "ADMIN".equals(user.getRole());
             
             // If quiz is not published, only admins can see it
-            if (!quiz.isPublished() && (auth == null || !includeAnswers)) {
+            if (!version.isPublished() && !includeAnswers) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN)
                     .body(Map.of("error", "Quiz not available"));
             }
             
-            QuizDTO quizDTO = QuizDTO.fromQuiz(quiz, includeAnswers);
-            return ResponseEntity.ok(quizDTO);
+            String etag = quizService.getQuizETag(version, includeAnswers);
+            long lastModified = quizService.getQuizLastModified(version);
+            if (webRequest.checkNotModified(etag, lastModified)) {
+                return null; // 304 already written
+            }
+            
+            // Serve pre-encoded JSON for this version when we have it
+            byte[] json = quizJsonCache.get(id, includeAnswers, etag);
+            if (json == null) {
+                Optional<Quiz> quizOpt = quizService.getQuizById(id);
+                if (quizOpt.isEmpty()) {
+                    return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(Map.of("error", "Quiz not found"));
+                }
+                
+                // Tag the body with the version actually loaded, in case it changed since the lookup
+                Quiz quiz = quizOpt.get();
+                etag = quizService.getQuizETag(quiz, includeAnswers);
+                lastModified = quizService.getQuizLastModified(quiz);
+                json = quizJsonCache.put(id, includeAnswers, etag, QuizDTO.fromQuiz(quiz, includeAnswers));
+            }
+            
+            return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .eTag(etag)
+                .lastModified(lastModified)
+                .body(json);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                 .body(Map.of("error", e.getMessage()));
@@ -166,9 +214,8 @@ public class QuizController {
      * Create a new quiz (admin only)
      */
     @PostMapping
-    public ResponseEntity<?> createQuiz(@RequestBody Quiz quiz, Authentication auth) {
+    public ResponseEntity<?> createQuiz(@RequestBody Quiz quiz, @CurrentUser AuthenticatedUser user) {
         try {
-            User user = getUserFromAuth(auth);
             if (!"ADMIN".equals(user.getRole())) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN)
                     .body(Map.of("error", "Only admins can create quizzes"));
@@ -180,7 +227,7 @@ public class QuizController {
                     .body(Map.of("error", "Invalid category. Valid categories are: " + String.join(", ", VALID_CATEGORIES)));
             }
             
-            Quiz createdQuiz = quizService.createQuiz(quiz, user.getId());
+            Quiz createdQuiz = quizService.createQuiz(quiz, user);
             return ResponseEntity.status(HttpStatus.CREATED)
                 .body(QuizDTO.fromQuiz(createdQuiz, true));
         } catch (IllegalArgumentException e) {
@@ -196,9 +243,8 @@ public class QuizController {
      * Update a quiz (admin only)
      */
     @PutMapping("/{id}")
-    public ResponseEntity<?> updateQuiz(@PathVariable String id, @RequestBody Quiz quiz, Authentication auth) {
+    public ResponseEntity<?> updateQuiz(@PathVariable String id, @RequestBody Quiz quiz, @CurrentUser AuthenticatedUser user) {
         try {
-            User user = getUserFromAuth(auth);
             if (!"ADMIN".equals(user.getRole())) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN)
                     .body(Map.of("error", "Only admins can update quizzes"));
@@ -212,11 +258,154 @@ public class QuizController {
                     .body(Map.of("error", "Invalid category. Valid categories are: " + String.join(", ", VALID_CATEGORIES)));
             }
             
-            Quiz updatedQuiz = quizService.updateQuiz(id, quiz, user.getId());
+            Quiz updatedQuiz = quizService.updateQuiz(id, quiz, user);
+            return ResponseEntity.ok(QuizDTO.fromQuiz(updatedQuiz, true));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(Map.of("error", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(Map.of("error", e.getMessage()));
+        }
+    }
+    
+    /**
+     * Change quiz metadata (title, description, category, time limit, passing score) without
+     * resending the questions (admin only)
+     */
+    @PatchMapping("/{id}")
+    public ResponseEntity<?> updateQuizMetadata(@PathVariable String id, @RequestBody QuizMetadataUpdate changes,
+                                                @CurrentUser AuthenticatedUser user) {
+        try {
+            if (!"ADMIN".equals(user.getRole())) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(Map.of("error", "Only admins can update quizzes"));
+            }
+            
+            // Allow existing quizzes to keep their category even if it's not in the current valid list
+            if (changes.getCategory() != null && !VALID_CATEGORIES.contains(changes.getCategory())) {
+                Optional<Quiz> existingQuiz = quizService.getQuizById(id);
+                if (existingQuiz.isPresent() && !changes.getCategory().equals(existingQuiz.get().getCategory())) {
+                    return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                        .body(Map.of("error", "Invalid category. Valid categories are: " + String.join(", ", VALID_CATEGORIES)));
+                }
+            }
+            
+            Quiz updatedQuiz = quizService.updateQuizMetadata(id, changes, user);
+            return ResponseEntity.ok(QuizDTO.fromQuiz(updatedQuiz, true));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(Map.of("error", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(Map.of("error", e.getMessage()));
+        }
+    }
+    
+    /**
+     * Add one question (admin only)
+     */
+    @PostMapping("/{id}/questions")
+    public ResponseEntity<?> addQuestion(@PathVariable String id, @RequestBody QuestionUpdate question,
+                                         @CurrentUser AuthenticatedUser user) {
+        try {
+            if (!"ADMIN".equals(user.getRole())) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(Map.of("error", "Only admins can update quizzes"));
+            }
+            
+            Quiz updatedQuiz = quizService.addQuestion(id, question, user);
+            return ResponseEntity.status(HttpStatus.CREATED).body(QuizDTO.fromQuiz(updatedQuiz, true));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(Map.of("error", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(Map.of("error", e.getMessage()));
+        }
+    }
+    
+    /**
+     * Change one question (admin only)
+     */
+    @PatchMapping("/{id}/questions/{questionId}")
+    public ResponseEntity<?> updateQuestion(@PathVariable String id, @PathVariable String questionId,
+                                            @RequestBody QuestionUpdate changes, @CurrentUser AuthenticatedUser user) {
+        try {
+            if (!"ADMIN".equals(user.getRole())) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(Map.of("error", "Only admins can update quizzes"));
+            }
+            
+            Quiz updatedQuiz = quizService.updateQuestion(id, questionId, changes, user);
+            return ResponseEntity.ok(QuizDTO.fromQuiz(updatedQuiz, true));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(Map.of("error", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(Map.of("error", e.getMessage()));
+        }
+    }
+    
+    /**
+     * Delete one question (admin only)
+     */
+    @DeleteMapping("/{id}/questions/{questionId}")
+    public ResponseEntity<?> deleteQuestion(@PathVariable String id, @PathVariable String questionId,
+                                            @RequestParam(required = false) Long version, @CurrentUser AuthenticatedUser user) {
+        try {
+            if (!"ADMIN".equals(user.getRole())) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(Map.of("error", "Only admins can update quizzes"));
+            }
+            
+            Quiz updatedQuiz = quizService.deleteQuestion(id, questionId, version, user);
             return ResponseEntity.ok(QuizDTO.fromQuiz(updatedQuiz, true));
         } catch (IllegalArgumentException e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                 .body(Map.of("error", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(Map.of("error", e.getMessage()));
+        }
+    }
+    
+    /**
+     * Reorder the questions of a quiz (admin only)
+     */
+    @PutMapping("/{id}/questions/order")
+    public ResponseEntity<?> reorderQuestions(@PathVariable String id, @RequestBody QuestionOrderUpdate order,
+                                              @CurrentUser AuthenticatedUser user) {
+        try {
+            if (!"ADMIN".equals(user.getRole())) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(Map.of("error", "Only admins can update quizzes"));
+            }
+            
+            Quiz updatedQuiz = quizService.reorderQuestions(id, order, user);
+            return ResponseEntity.ok(QuizDTO.fromQuiz(updatedQuiz, true));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(Map.of("error", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                 .body(Map.of("error", e.getMessage()));
@@ -227,15 +416,14 @@ public class QuizController {
      * Publish a quiz (admin only)
      */
     @PostMapping("/{id}/publish")
-    public ResponseEntity<?> publishQuiz(@PathVariable String id, Authentication auth) {
+    public ResponseEntity<?> publishQuiz(@PathVariable String id, @CurrentUser AuthenticatedUser user) {
         try {
-            User user = getUserFromAuth(auth);
             if (!"ADMIN".equals(user.getRole())) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN)
                     .body(Map.of("error", "Only admins can publish quizzes"));
             }
             
-            Quiz publishedQuiz = quizService.publishQuiz(id, user.getId());
+            Quiz publishedQuiz = quizService.publishQuiz(id, user);
             return ResponseEntity.ok(Map.of(
                 "success", true,
                 "message", "Quiz published successfully",
@@ -254,15 +442,14 @@ public class QuizController {
      * Unpublish a quiz (admin only)
      */
     @PostMapping("/{id}/unpublish")
-    public ResponseEntity<?> unpublishQuiz(@PathVariable String id, Authentication auth) {
+    public ResponseEntity<?> unpublishQuiz(@PathVariable String id, @CurrentUser AuthenticatedUser user) {
         try {
-            User user = getUserFromAuth(auth);
             if (!"ADMIN".equals(user.getRole())) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN)
                     .body(Map.of("error", "Only admins can unpublish quizzes"));
             }
             
-            Quiz unpublishedQuiz = quizService.unpublishQuiz(id, user.getId());
+            Quiz unpublishedQuiz = quizService.unpublishQuiz(id, user);
             return ResponseEntity.ok(Map.of(
                 "success", true,
                 "message", "Quiz unpublished successfully",
@@ -277,22 +464,48 @@ public class QuizController {
         }
     }
     
+    /**
+     * Recompute all quiz statistics from completed attempts (admin only)
+     */
+    @PostMapping("/admin/statistics/rebuild")
+    public ResponseEntity<?> rebuildStatistics(@CurrentUser AuthenticatedUser user) {
+        try {
+            if (!"ADMIN".equals(user.getRole())) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(Map.of("error", "Only admins can rebuild quiz statistics"));
+            }
+            
+            int rebuilt = statisticsAggregator.rebuildFromAttempts();
+            return ResponseEntity.ok(Map.of(
+                "success", true,
+                "message", "Quiz statistics rebuilt successfully",
+                "quizzesWithAttempts", rebuilt
+            ));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(Map.of("error", e.getMessage()));
+        }
+    }
+    
     /**
      * Delete a quiz (admin only)
      */
     @DeleteMapping("/{id}")
-    public ResponseEntity<?> deleteQuiz(@PathVariable String id, Authentication auth) {
+    public ResponseEntity<?> deleteQuiz(@PathVariable String id, @CurrentUser AuthenticatedUser user) {
         try {
-            User user = getUserFromAuth(auth);
             if (!"ADMIN".equals(user.getRole())) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN)
                     .body(Map.of("error", "Only admins can delete quizzes"));
             }
             
-            quizService.deleteQuiz(id, user.getId());
-            return ResponseEntity.ok(Map.of(
+            QuizDeletionJob job = quizService.deleteQuiz(id, user);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(Map.of(
                 "success", true,
-                "message", "Quiz deleted successfully"
+                "message", "Quiz deleted successfully; its attempts are being removed",
+                "deletionJobId", job.getId()
             ));
         } catch (IllegalArgumentException e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
@@ -304,21 +517,102 @@ public class QuizController {
     }
     
     /**
-     * Helper method to get User from Authentication
+     * Recent quiz deletion jobs and their progress (admin only)
      */
-    private User getUserFromAuth(Authentication auth) {
-        if (auth == null) {
-            throw new IllegalArgumentException("Authentication required");
+    @GetMapping("/admin/deletions")
+    public ResponseEntity<?> getDeletionJobs(@CurrentUser AuthenticatedUser user) {
+        try {
+            if (!"ADMIN".equals(user.getRole())) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(Map.of("error", "Only admins can access this endpoint"));
+            }
+            
+            return ResponseEntity.ok(quizDeletionService.getRecentJobs());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(Map.of("error", e.getMessage()));
+        }
+    }
+    
+    /**
+     * Progress of one quiz deletion job (admin only)
+     */
+    @GetMapping("/admin/deletions/{jobId}")
+    public ResponseEntity<?> getDeletionJob(@PathVariable String jobId, @CurrentUser AuthenticatedUser user) {
+        try {
+            if (!"ADMIN".equals(user.getRole())) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(Map.of("error", "Only admins can access this endpoint"));
+            }
+            
+            Optional<QuizDeletionJob> job = quizDeletionService.getJob(jobId);
+            if (job.isEmpty()) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("error", "Deletion job not found"));
+            }
+            return ResponseEntity.ok(job.get());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(Map.of("error", e.getMessage()));
+        }
+    }
+    
+    /**
+     * Published catalog response; the cached full lists carry a catalog-level ETag
+     */
+    private ResponseEntity<?> publishedQuizzesResponse(QuizListParams params, WebRequest webRequest) {
+        if (params.isPaged()) {
+            return ResponseEntity.ok(listPublishedQuizzes(params));
         }
         
-        String username = auth.getName();
-        User user = userRepository.findByUsername(username)
-            .orElseThrow(() -> new IllegalArgumentException("User not found"));
+        String etag = quizService.getCatalogETag(params.isSummary());
+        if (webRequest.checkNotModified(etag)) {
+            return null; // 304 already written
+        }
+        return ResponseEntity.ok()
+            .cacheControl(CacheControl.noCache().cachePrivate())
+            .eTag(etag)
+            .body(listPublishedQuizzes(params));
+    }
+    
+    /**
+     * Published catalog as a page, a summary list or the full answer-stripped list
+     */
+    private Object listPublishedQuizzes(QuizListParams params) {
+        if (params.isPaged()) {
+            PageResponse<Quiz> page = quizService.getPublishedQuizPage(params.getCategory(),
+                params.getCursor(), params.getLimit(), params.getOrder(), params.isSummary());
+            return params.isSummary()
+                ? page.map(QuizSummaryDTO::fromQuiz)
+                : page.map(quiz -> QuizDTO.fromQuiz(quiz, false));
+        }
         
-        if (user == null) {
-            throw new IllegalArgumentException("User not found");
+        return params.isSummary() ? quizService.getPublishedQuizSummaries() : quizService.getPublishedQuizzes();
+    }
+    
+    /**
+     * Every quiz including answers, for admins
+     */
+    private Object listAllQuizzes(QuizListParams params) {
+        if (params.isPaged()) {
+            PageResponse<Quiz> page = quizService.getQuizPage(params.getCategory(),
+                params.getCursor(), params.getLimit(), params.getOrder(), params.isSummary());
+            return params.isSummary()
+                ? page.map(QuizSummaryDTO::fromQuiz)
+                : page.map(quiz -> QuizDTO.fromQuiz(quiz, true));
         }
         
-        return user;
+        if (params.isSummary()) {
+            return quizService.getAllQuizSummaries();
+        }
+        return quizService.getAllQuizzes().stream()
+            .map(quiz -> QuizDTO.fromQuiz(quiz, true))
+            .collect(Collectors.toList());
     }
 }
\ No newline at end of file
@@ -0,0 +1,37 @@
+package com.learn.learnloop.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+
+/**
+ * Query parameters accepted by the attempt history endpoints
+ */
+@Data
+@NoArgsConstructor
+public class AttemptListParams {
+    private String cursor;   // nextCursor from the previous page
+    private Integer limit;   // page size, clamped server-side
+    private String order;    // "desc" (newest first, default) or "asc" by completedAt
+    
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime from; // completedAt >= from
+    
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime to;   // completedAt < to
+    
+    private Integer minScore; // score percentage, inclusive
+    private Integer maxScore; // score percentage, inclusive
+    private Boolean passed;
+    private String userId;    // admin endpoints only
+    
+    /**
+     * Any paging or filter parameter switches the response to a PageResponse
+     */
+    public boolean isPaged() {
+        return cursor != null || limit != null || order != null || from != null || to != null
+            || minScore != null || maxScore != null || passed != null || userId != null;
+    }
+}
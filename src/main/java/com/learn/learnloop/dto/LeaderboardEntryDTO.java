@@ -0,0 +1,19 @@
+package com.learn.learnloop.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One row of a quiz or category leaderboard
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LeaderboardEntryDTO {
+    private int rank;
+    private String userId;
+    private String username;
+    private int score;     // best score percentage
+    private int timeSpent; // seconds, on the best attempt
+}
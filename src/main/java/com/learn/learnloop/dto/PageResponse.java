@@ -0,0 +1,29 @@
+package com.learn.learnloop.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * One page of a keyset-paginated listing; nextCursor is null on the last page
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PageResponse<T> {
+    private List<T> items = new ArrayList<>();
+    private String nextCursor;
+    
+    public boolean isHasMore() {
+        return nextCursor != null;
+    }
+    
+    public <R> PageResponse<R> map(Function<T, R> mapper) {
+        return new PageResponse<>(items.stream().map(mapper).collect(Collectors.toList()), nextCursor);
+    }
+}
@@ -0,0 +1,18 @@
+package com.learn.learnloop.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * New order of a quiz's questions: every existing question ID exactly once
+ */
+@Data
+@NoArgsConstructor
+public class QuestionOrderUpdate {
+    private List<String> questionIds = new ArrayList<>();
+    
+    private Long version; // version the edit was made against; required
+}
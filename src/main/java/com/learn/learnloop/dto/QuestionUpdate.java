@@ -0,0 +1,21 @@
+package com.learn.learnloop.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Body for adding one question, or PATCHing one (only the fields that are present are changed)
+ */
+@Data
+@NoArgsConstructor
+public class QuestionUpdate {
+    private String text;
+    private String type; // MULTIPLE_CHOICE or MULTIPLE_ANSWER
+    private List<String> options;
+    private List<String> correctOptions; // indices of correct options stored as strings
+    private Integer position; // add only: 0-based insert position, appended when absent
+    
+    private Long version; // version the edit was made against; required
+}
@@ -18,6 +18,7 @@ public class QuizAttemptDTO {
     private String quizTitle; // To be filled from Quiz data
     private LocalDateTime startedAt;
     private LocalDateTime completedAt;
+    private LocalDateTime deadlineAt; // null when the quiz has no time limit
     private boolean completed;
     
     private int score; // percentage
@@ -28,6 +29,7 @@ public class QuizAttemptDTO {
     private int correctAnswers;
     private int incorrectAnswers;
     private String timeTaken; // Formatted time (e.g., "2m 30s")
+    private Double percentile; // share of the quiz's attempts scoring below this one (ties count half); null if unknown
     
     private List<ResponseDTO> responses = new ArrayList<>();
     
@@ -47,6 +49,7 @@ public class QuizAttemptDTO {
         dto.setQuizId(attempt.getQuizId());
         dto.setStartedAt(attempt.getStartedAt());
         dto.setCompletedAt(attempt.getCompletedAt());
+        dto.setDeadlineAt(attempt.getDeadlineAt());
         dto.setCompleted(attempt.isCompleted());
         dto.setScore(attempt.getScore());
         dto.setPassed(attempt.isPassed());
@@ -13,6 +13,7 @@ import java.util.stream.Collectors;
 @NoArgsConstructor
 public class QuizDTO {
     private String id;
+    private Long version; // send back with edits; a stale version is rejected with 409
     private String title;
     private String description;
     private String category;
@@ -58,9 +59,35 @@ public class QuizDTO {
         private List<String> correctOptions = new ArrayList<>(); // Only included for admin or after quiz completion
     }
     
+    /**
+     * A copy with an attempt statistics delta folded in; cached entries are shared by
+     * concurrent readers, so they are replaced rather than changed
+     */
+    public QuizDTO withStatisticsDelta(long attempts, long passes, long scoreSum) {
+        QuizDTO copy = new QuizDTO();
+        copy.setId(id);
+        copy.setVersion(version);
+        copy.setTitle(title);
+        copy.setDescription(description);
+        copy.setCategory(category);
+        copy.setTimeLimit(timeLimit);
+        copy.setPassingScore(passingScore);
+        copy.setIsPublished(isPublished);
+        copy.setQuestions(questions);
+        copy.setCreatedBy(createdBy);
+        copy.setCreatedAt(createdAt);
+        copy.setUpdatedAt(updatedAt);
+        int total = totalAttempts + (int) attempts;
+        copy.setTotalAttempts(total);
+        copy.setPassCount(passCount + (int) passes);
+        copy.setAverageScore(total > 0 ? (averageScore * totalAttempts + scoreSum) / total : 0.0);
+        return copy;
+    }
+    
     public static QuizDTO fromQuiz(Quiz quiz, boolean includeAnswers) {
         QuizDTO dto = new QuizDTO();
         dto.setId(quiz.getId());
+        dto.setVersion(quiz.getVersion());
         dto.setTitle(quiz.getTitle());
         dto.setDescription(quiz.getDescription());
         dto.setCategory(quiz.getCategory());
@@ -0,0 +1,28 @@
+package com.learn.learnloop.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Query parameters accepted by the quiz list endpoints
+ */
+@Data
+@NoArgsConstructor
+public class QuizListParams {
+    private String view;     // "summary" drops questions from each entry
+    private String category; // exact category match
+    private String cursor;   // nextCursor from the previous page
+    private Integer limit;   // page size, clamped server-side
+    private String order;    // "desc" (newest first, default) or "asc" by updatedAt
+    
+    public boolean isSummary() {
+        return "summary".equalsIgnoreCase(view);
+    }
+    
+    /**
+     * Any paging or filter parameter switches the response to a PageResponse
+     */
+    public boolean isPaged() {
+        return cursor != null || limit != null || category != null || order != null;
+    }
+}
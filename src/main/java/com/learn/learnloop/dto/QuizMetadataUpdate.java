@@ -0,0 +1,19 @@
+package com.learn.learnloop.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * PATCH body for a quiz's metadata; only the fields that are present are changed
+ */
+@Data
+@NoArgsConstructor
+public class QuizMetadataUpdate {
+    private String title;
+    private String description;
+    private String category;
+    private Integer timeLimit;    // in minutes, 0 means no limit
+    private Integer passingScore; // percentage
+    
+    private Long version; // version the edit was made against; required
+}
@@ -0,0 +1,95 @@
+package com.learn.learnloop.dto;
+
+import com.learn.learnloop.model.Quiz;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Quiz list entry without questions (?view=summary)
+ */
+@Data
+@NoArgsConstructor
+public class QuizSummaryDTO {
+    private String id;
+    private Long version; // send back with edits; a stale version is rejected with 409
+    private String title;
+    private String description;
+    private String category;
+    private int timeLimit;
+    private int passingScore;
+    private boolean isPublished;
+    private int questionCount;
+    
+    private String createdBy;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    
+    // Statistics
+    private int totalAttempts;
+    private int passCount;
+    private double averageScore;
+    
+    // Explicitly add getter and setter for isPublished to avoid conflicts
+    public boolean isPublished() {
+        return isPublished;
+    }
+    
+    public void setPublished(boolean isPublished) {
+        this.isPublished = isPublished;
+    }
+    
+    public void setIsPublished(boolean isPublished) {
+        this.isPublished = isPublished;
+    }
+    
+    public boolean getIsPublished() {
+        return isPublished;
+    }
+    
+    /**
+     * A copy with an attempt statistics delta folded in; cached entries are shared by
+     * concurrent readers, so they are replaced rather than changed
+     */
+    public QuizSummaryDTO withStatisticsDelta(long attempts, long passes, long scoreSum) {
+        QuizSummaryDTO copy = new QuizSummaryDTO();
+        copy.setId(id);
+        copy.setVersion(version);
+        copy.setTitle(title);
+        copy.setDescription(description);
+        copy.setCategory(category);
+        copy.setTimeLimit(timeLimit);
+        copy.setPassingScore(passingScore);
+        copy.setIsPublished(isPublished);
+        copy.setQuestionCount(questionCount);
+        copy.setCreatedBy(createdBy);
+        copy.setCreatedAt(createdAt);
+        copy.setUpdatedAt(updatedAt);
+        int total = totalAttempts + (int) attempts;
+        copy.setTotalAttempts(total);
+        copy.setPassCount(passCount + (int) passes);
+        copy.setAverageScore(total > 0 ? (averageScore * totalAttempts + scoreSum) / total : 0.0);
+        return copy;
+    }
+    
+    public static QuizSummaryDTO fromQuiz(Quiz quiz) {
+        QuizSummaryDTO dto = new QuizSummaryDTO();
+        dto.setId(quiz.getId());
+        dto.setVersion(quiz.getVersion());
+        dto.setTitle(quiz.getTitle());
+        dto.setDescription(quiz.getDescription());
+        dto.setCategory(quiz.getCategory());
+        dto.setTimeLimit(quiz.getTimeLimit());
+        dto.setPassingScore(quiz.getPassingScore());
+        dto.setIsPublished(quiz.isPublished());
+        dto.setQuestionCount(quiz.getQuestionCount());
+        dto.setCreatedBy(quiz.getCreatedBy());
+        dto.setCreatedAt(quiz.getCreatedAt());
+        dto.setUpdatedAt(quiz.getUpdatedAt());
+        dto.setTotalAttempts(quiz.getTotalAttempts());
+        dto.setPassCount(quiz.getPassCount());
+        dto.setAverageScore(quiz.getAverageScore());
+        return dto;
+    }
+}
@@ -0,0 +1,36 @@
+package com.learn.learnloop.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Up to MAX_ATTEMPTS completed attempts of one user in a single document, oldest first, so a
+ * history read touches a handful of documents instead of one per attempt
+ */
+@Data
+@NoArgsConstructor
+@Document(collection = "quiz_attempt_buckets")
+// Newest buckets of a user first
+@CompoundIndex(name = "user_bucket_end_idx", def = "{'userId': 1, 'bucketEnd': -1}")
+public class AttemptBucket {
+    
+    public static final int MAX_ATTEMPTS = 200;
+    
+    @Id
+    private String id;
+    
+    private String userId;
+    private int count;
+    private LocalDateTime bucketStart; // completedAt of the oldest attempt
+    private LocalDateTime bucketEnd;   // completedAt of the newest attempt
+    private boolean migrated;          // written by the migration; live submits never append to these
+    
+    private List<BucketedAttempt> attempts = new ArrayList<>();
+}
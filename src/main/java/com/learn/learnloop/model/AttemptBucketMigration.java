@@ -0,0 +1,37 @@
+package com.learn.learnloop.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * State of copying completed attempts into quiz_attempt_buckets; a single document
+ */
+@Data
+@NoArgsConstructor
+@Document(collection = "attempt_bucket_migrations")
+public class AttemptBucketMigration {
+    
+    public static final String ID = "attempt-buckets";
+    
+    public static final String NOT_STARTED = "NOT_STARTED";
+    public static final String RUNNING = "RUNNING";
+    public static final String COMPLETED = "COMPLETED";
+    public static final String FAILED = "FAILED";
+    
+    @Id
+    private String id;
+    
+    private String status;
+    private LocalDateTime dualWriteSince; // attempts completed from here on are bucketed by submit
+    private String lastUserId;            // users up to and including this one are fully copied
+    private long migratedAttempts;
+    private String error;
+    
+    private LocalDateTime startedAt;
+    private LocalDateTime updatedAt;
+    private LocalDateTime completedAt;
+}
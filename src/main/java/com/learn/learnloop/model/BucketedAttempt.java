@@ -0,0 +1,69 @@
+package com.learn.learnloop.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A completed attempt as embedded in an AttemptBucket. Deliberately a separate type without
+ * QuizAttempt's index annotations: index resolution follows embedded entities, so embedding
+ * QuizAttempt itself would give the bucket collection multikey copies of all of them.
+ */
+@Data
+@NoArgsConstructor
+public class BucketedAttempt {
+    
+    private String id;
+    private String quizId;
+    private Long quizVersion;
+    private LocalDateTime startedAt;
+    private LocalDateTime completedAt;
+    
+    private int score; // percentage
+    private boolean passed;
+    private int timeSpent; // in seconds
+    private String submissionKey;
+    private String category;
+    
+    private List<QuizAttempt.QuestionResponse> responses = new ArrayList<>();
+    
+    public static BucketedAttempt of(QuizAttempt attempt) {
+        BucketedAttempt bucketed = new BucketedAttempt();
+        bucketed.setId(attempt.getId());
+        bucketed.setQuizId(attempt.getQuizId());
+        bucketed.setQuizVersion(attempt.getQuizVersion());
+        bucketed.setStartedAt(attempt.getStartedAt());
+        bucketed.setCompletedAt(attempt.getCompletedAt());
+        bucketed.setScore(attempt.getScore());
+        bucketed.setPassed(attempt.isPassed());
+        bucketed.setTimeSpent(attempt.getTimeSpent());
+        bucketed.setSubmissionKey(attempt.getSubmissionKey());
+        bucketed.setCategory(attempt.getCategory());
+        bucketed.setResponses(attempt.getResponses() != null ? new ArrayList<>(attempt.getResponses()) : new ArrayList<>());
+        return bucketed;
+    }
+    
+    /**
+     * The completed QuizAttempt of the bucket's user
+     */
+    public QuizAttempt toAttempt(String userId) {
+        QuizAttempt attempt = new QuizAttempt();
+        attempt.setId(id);
+        attempt.setUserId(userId);
+        attempt.setQuizId(quizId);
+        attempt.setQuizVersion(quizVersion);
+        attempt.setStartedAt(startedAt);
+        attempt.setCompletedAt(completedAt);
+        attempt.setCompleted(true);
+        attempt.setScore(score);
+        attempt.setPassed(passed);
+        attempt.setTimeSpent(timeSpent);
+        attempt.setSubmissionKey(submissionKey);
+        attempt.setCategory(category);
+        attempt.setResponses(responses != null ? new ArrayList<>(responses) : new ArrayList<>());
+        return attempt;
+    }
+}
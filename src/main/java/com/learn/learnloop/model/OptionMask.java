@@ -0,0 +1,73 @@
+package com.learn.learnloop.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Stored form of option index lists ("0", "2", ...): a bitmask with bit i set for option i.
+ * Only lists that survive the round trip unchanged apart from order are encoded; anything else
+ * (non-numeric, padded, duplicated or beyond 63) keeps the legacy list form.
+ */
+public final class OptionMask {
+
+    public static final int MAX_OPTIONS = 64;
+
+    private OptionMask() {
+    }
+
+    /**
+     * The mask for a list of option indices, or null if the list cannot be stored as one
+     */
+    public static Long encode(List<String> options) {
+        if (options == null) {
+            return null;
+        }
+        long mask = 0L;
+        for (String option : options) {
+            int index = parse(option);
+            if (index < 0 || (mask & (1L << index)) != 0) {
+                return null;
+            }
+            mask |= 1L << index;
+        }
+        return mask;
+    }
+
+    /**
+     * Option indices of a mask in ascending order
+     */
+    public static List<String> decode(long mask) {
+        List<String> options = new ArrayList<>(Long.bitCount(mask));
+        while (mask != 0) {
+            int index = Long.numberOfTrailingZeros(mask);
+            options.add(Integer.toString(index));
+            mask &= mask - 1;
+        }
+        return options;
+    }
+
+    /**
+     * BSON value for a mask: int32 when it fits (up to 31 options), otherwise int64
+     */
+    public static Object toBson(long mask) {
+        return mask >= 0 && mask <= Integer.MAX_VALUE ? (Object) (int) mask : (Object) mask;
+    }
+
+    private static int parse(String option) {
+        if (option == null || option.isEmpty() || option.length() > 2) {
+            return -1;
+        }
+        if (option.length() == 2 && option.charAt(0) == '0') {
+            return -1; // "03" would come back as "3"
+        }
+        int value = 0;
+        for (int i = 0; i < option.length(); i++) {
+            char c = option.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value < MAX_OPTIONS ? value : -1;
+    }
+}
@@ -4,38 +4,64 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "quizzes")
+@CompoundIndexes({
+    // Keyset pagination on (updatedAt, _id) for each list scope, with and without a category filter
+    @CompoundIndex(name = "published_updated_idx", def = "{'isPublished': 1, 'updatedAt': -1, '_id': -1}"),
+    @CompoundIndex(name = "published_category_updated_idx", def = "{'isPublished': 1, 'category': 1, 'updatedAt': -1, '_id': -1}"),
+    @CompoundIndex(name = "creator_updated_idx", def = "{'createdBy': 1, 'updatedAt': -1, '_id': -1}"),
+    @CompoundIndex(name = "creator_category_updated_idx", def = "{'createdBy': 1, 'category': 1, 'updatedAt': -1, '_id': -1}"),
+    @CompoundIndex(name = "updated_idx", def = "{'updatedAt': -1, '_id': -1}"),
+    @CompoundIndex(name = "category_updated_idx", def = "{'category': 1, 'updatedAt': -1, '_id': -1}")
+})
 public class Quiz {
     
     @Id
     private String id;
     
+    @Version
+    private Long version; // optimistic lock: bumped by every admin write, stale edits are rejected
+    
     private String title;
     private String description;
     private String category;
     private int timeLimit; // in minutes, 0 means no limit
     private int passingScore; // percentage
     private boolean isPublished;
+    private long contentVersion; // bumped by every content edit; attempts reference QuizSnapshot versions
     
     private String createdBy; // user ID of admin who created this quiz
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
     
     private List<Question> questions = new ArrayList<>();
+    private int questionCount; // kept in sync with questions so list views can skip them
     
     // Statistics
     private int totalAttempts;
     private int passCount;
-    private double averageScore;
+    private long scoreSum; // running sum of attempt scores; the average is derived from it
+    private LocalDateTime lastAttemptAt; // last statistics change, used for Last-Modified
+    private Map<String, Long> scoreHistogram = new HashMap<>(); // attempts per score, keyed "0".."100" so buckets can be $inc'ed
+    
+    // Derived so that statistics can be maintained with atomic $inc updates
+    public double getAverageScore() {
+        return totalAttempts > 0 ? (double) scoreSum / totalAttempts : 0.0;
+    }
     
     // Explicitly add getter and setter for isPublished to avoid naming conflicts
     public boolean isPublished() {
@@ -4,6 +4,8 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
@@ -14,6 +16,14 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "quiz_attempts")
+@CompoundIndexes({
+    // Keyset pagination of attempt history on (completedAt, _id) for each history scope
+    @CompoundIndex(name = "quiz_completed_idx", def = "{'quizId': 1, 'completed': 1, 'completedAt': -1, '_id': -1}"),
+    @CompoundIndex(name = "user_completed_idx", def = "{'userId': 1, 'completed': 1, 'completedAt': -1, '_id': -1}"),
+    @CompoundIndex(name = "user_quiz_completed_idx", def = "{'userId': 1, 'quizId': 1, 'completed': 1, 'completedAt': -1, '_id': -1}"),
+    // Open attempts by start time, for re-arming deadlines after a restart
+    @CompoundIndex(name = "open_started_idx", def = "{'completed': 1, 'startedAt': 1}")
+})
 public class QuizAttempt {
     
     @Id
@@ -21,13 +31,16 @@ public class QuizAttempt {
     
     private String userId;
     private String quizId;
+    private Long quizVersion; // QuizSnapshot version the attempt is scored against; null for legacy attempts
     private LocalDateTime startedAt;
     private LocalDateTime completedAt;
+    private LocalDateTime deadlineAt; // startedAt + the quiz's time limit; null when untimed
     private boolean completed;
     
     private int score; // percentage
     private boolean passed;
     private int timeSpent; // in seconds
+    private String submissionKey; // Idempotency-Key of the submit that completed the attempt
     
     // Additional fields for BadgeService
     private String category; // Quiz category for tracking subject expertise
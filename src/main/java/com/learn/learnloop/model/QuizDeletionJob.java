@@ -0,0 +1,40 @@
+package com.learn.learnloop.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * Progress of removing a deleted quiz's attempts in the background; persisted so an interrupted
+ * job resumes after a restart
+ */
+@Data
+@NoArgsConstructor
+@Document(collection = "quiz_deletion_jobs")
+public class QuizDeletionJob {
+    
+    public static final String PENDING = "PENDING";
+    public static final String RUNNING = "RUNNING";
+    public static final String COMPLETED = "COMPLETED";
+    public static final String FAILED = "FAILED";
+    
+    @Id
+    private String id;
+    
+    private String quizId;
+    private String quizTitle;
+    private String requestedBy; // admin user ID
+    
+    @Indexed
+    private String status;
+    private long attemptsDeleted;
+    private String error;
+    
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private LocalDateTime completedAt;
+}
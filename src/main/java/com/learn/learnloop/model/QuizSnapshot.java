@@ -0,0 +1,57 @@
+package com.learn.learnloop.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The gradable content of a quiz as published at one content version. Written once and never
+ * updated, so anything derived from it can be cached without invalidation.
+ */
+@Data
+@NoArgsConstructor
+@Document(collection = "quiz_snapshots")
+public class QuizSnapshot {
+
+    @Id
+    private String id; // quizId:version
+
+    @Indexed
+    private String quizId;
+    private long version;
+
+    private String title;
+    private String category;
+    private int timeLimit; // in minutes, 0 means no limit
+    private int passingScore; // percentage
+    private List<Quiz.Question> questions = new ArrayList<>();
+
+    private LocalDateTime createdAt;
+
+    public static String key(String quizId, long version) {
+        return quizId + ':' + version;
+    }
+
+    /**
+     * Snapshot of the quiz's current content, tagged with its current content version
+     */
+    public static QuizSnapshot of(Quiz quiz) {
+        QuizSnapshot snapshot = new QuizSnapshot();
+        snapshot.setId(key(quiz.getId(), quiz.getContentVersion()));
+        snapshot.setQuizId(quiz.getId());
+        snapshot.setVersion(quiz.getContentVersion());
+        snapshot.setTitle(quiz.getTitle());
+        snapshot.setCategory(quiz.getCategory());
+        snapshot.setTimeLimit(quiz.getTimeLimit());
+        snapshot.setPassingScore(quiz.getPassingScore());
+        snapshot.setQuestions(quiz.getQuestions() != null ? new ArrayList<>(quiz.getQuestions()) : new ArrayList<>());
+        snapshot.setCreatedAt(LocalDateTime.now());
+        return snapshot;
+    }
+}
@@ -11,6 +11,7 @@ public interface QuizAttemptRepository extends MongoRepository<QuizAttempt, Stri
     List<QuizAttempt> findByUserId(String userId);
     List<QuizAttempt> findByQuizId(String quizId);
     List<QuizAttempt> findByUserIdAndQuizId(String userId, String quizId);
+    List<QuizAttempt> findByUserIdAndQuizIdAndCompleted(String userId, String quizId, boolean completed);
     List<QuizAttempt> findByUserIdAndCompleted(String userId, boolean completed);
     long countByQuizId(String quizId);
     long countByQuizIdAndPassed(String quizId, boolean passed);
@@ -0,0 +1,14 @@
+package com.learn.learnloop.repository;
+
+import com.learn.learnloop.model.QuizDeletionJob;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface QuizDeletionJobRepository extends MongoRepository<QuizDeletionJob, String> {
+    List<QuizDeletionJob> findByStatusIn(Collection<String> statuses);
+    List<QuizDeletionJob> findTop50ByOrderByCreatedAtDesc();
+}
@@ -2,9 +2,12 @@ package com.learn.learnloop.repository;
 
 import com.learn.learnloop.model.Quiz;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface QuizRepository extends MongoRepository<Quiz, String> {
@@ -16,4 +19,26 @@ public interface QuizRepository extends MongoRepository<Quiz, String> {
     List<Quiz> findByCategory(String category);
     
     List<Quiz> findByIsPublishedAndCategory(boolean isPublished, String category);
-}
\ No newline at end of file
+    
+    // Summary projections: the questions array is never sent over the wire or mapped
+    @Query(value = "{ 'isPublished': ?0 }", fields = "{ 'questions': 0 }")
+    List<Quiz> findSummariesByIsPublished(boolean isPublished);
+    
+    @Query(value = "{ 'createdBy': ?0 }", fields = "{ 'questions': 0 }")
+    List<Quiz> findSummariesByCreatedBy(String userId);
+    
+    @Query(value = "{}", fields = "{ 'questions': 0 }")
+    List<Quiz> findAllSummaries();
+    
+    // Only the fields that make up a quiz's ETag / Last-Modified
+    @Query(value = "{ '_id': ?0 }", fields = "{ 'updatedAt': 1, 'lastAttemptAt': 1, 'isPublished': 1, 'totalAttempts': 1, 'passCount': 1, 'scoreSum': 1 }")
+    Optional<Quiz> findVersionById(String id);
+    
+    // Title, question texts and score histogram of many quizzes in one round-trip, for enriching attempt history
+    @Query(value = "{ '_id': { '$in': ?0 } }", fields = "{ 'title': 1, 'questions._id': 1, 'questions.text': 1, 'scoreHistogram': 1 }")
+    List<Quiz> findTitlesAndQuestionTextsByIdIn(Collection<String> ids);
+    
+    // Title and score histogram only, for attempts whose question texts come from a QuizSnapshot
+    @Query(value = "{ '_id': { '$in': ?0 } }", fields = "{ 'title': 1, 'scoreHistogram': 1 }")
+    List<Quiz> findTitlesAndHistogramsByIdIn(Collection<String> ids);
+}
@@ -0,0 +1,69 @@
+package com.learn.learnloop.security;
+
+import com.learn.learnloop.model.User;
+
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.io.Serializable;
+import java.security.Principal;
+import java.util.Collections;
+
+/**
+ * Security principal carrying what controllers need about the signed-in user, so a request
+ * never has to look the user up again. Stored in the HTTP session, hence Serializable.
+ */
+public final class AuthenticatedUser implements Principal, Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String id;
+    private final String username;
+    private final String role;
+    private final long verifiedAt; // when id and role were last read from the users collection
+
+    public AuthenticatedUser(User user) {
+        this.id = user.getId();
+        this.username = user.getUsername();
+        this.role = user.getRole();
+        this.verifiedAt = System.currentTimeMillis();
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public String getRole() {
+        return role;
+    }
+
+    public long getVerifiedAt() {
+        return verifiedAt;
+    }
+
+    /**
+     * Keeps Authentication.getName() returning the username
+     */
+    @Override
+    public String getName() {
+        return username;
+    }
+
+    /**
+     * An authenticated token for this user with its ROLE_ authority
+     */
+    public Authentication toAuthentication() {
+        return new UsernamePasswordAuthenticationToken(this, null,
+                Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + role)));
+    }
+
+    @Override
+    public String toString() {
+        return username;
+    }
+}
@@ -0,0 +1,78 @@
+package com.learn.learnloop.security;
+
+import com.learn.learnloop.model.User;
+import com.learn.learnloop.repository.UserRepository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Resolves the AuthenticatedUser of a request from the security context. The principal is
+ * trusted as is until it is older than the revalidation interval; then, and for sessions signed
+ * in with a plain username principal, the user is read again so role changes and deleted
+ * accounts take effect, and the refreshed principal replaces the one in the session.
+ */
+@Component
+public class AuthenticatedUsers {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Value("${app.auth.principal-revalidate-seconds:300}")
+    private long revalidateSeconds;
+
+    private final AtomicLong fromPrincipal = new AtomicLong();
+    private final AtomicLong revalidated = new AtomicLong();
+    private final AtomicLong legacyUpgraded = new AtomicLong();
+
+    /**
+     * The signed-in user, or null for anonymous requests and users that no longer exist
+     */
+    public AuthenticatedUser resolve(Authentication auth) {
+        if (auth == null || !auth.isAuthenticated() || auth instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+
+        Object principal = auth.getPrincipal();
+        User user;
+        if (principal instanceof AuthenticatedUser) {
+            AuthenticatedUser current = (AuthenticatedUser) principal;
+            if (System.currentTimeMillis() - current.getVerifiedAt() < revalidateSeconds * 1000) {
+                fromPrincipal.incrementAndGet();
+                return current;
+            }
+            user = userRepository.findById(current.getId()).orElse(null);
+            revalidated.incrementAndGet();
+        } else {
+            // Session created before principals carried the user; look it up once and upgrade it
+            user = userRepository.findByUsername(auth.getName()).orElse(null);
+            legacyUpgraded.incrementAndGet();
+        }
+
+        if (user == null) {
+            SecurityContextHolder.clearContext();
+            return null;
+        }
+        AuthenticatedUser refreshed = new AuthenticatedUser(user);
+        // The session-backed context is saved again at the end of the request
+        SecurityContextHolder.getContext().setAuthentication(refreshed.toAuthentication());
+        return refreshed;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("fromPrincipal", fromPrincipal.get());
+        stats.put("revalidated", revalidated.get());
+        stats.put("legacyUpgraded", legacyUpgraded.get());
+        stats.put("revalidateSeconds", revalidateSeconds);
+        return stats;
+    }
+}
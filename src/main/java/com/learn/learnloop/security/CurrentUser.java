@@ -0,0 +1,19 @@
+package com.learn.learnloop.security;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Injects the signed-in user as an {@link AuthenticatedUser} controller argument. A required
+ * argument without a signed-in user is answered with 401; an optional one resolves to null.
+ */
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface CurrentUser {
+
+    boolean required() default true;
+}
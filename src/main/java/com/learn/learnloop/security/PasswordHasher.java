@@ -0,0 +1,167 @@
+package com.learn.learnloop.security;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Runs password hashing and verification on a dedicated pool sized to the CPU count, so a burst
+ * of logins saturates these threads instead of the request threads every other endpoint needs.
+ * The queue is bounded: when it is full the returned future fails at once with Saturated.
+ */
+@Component
+public class PasswordHasher {
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    // 0 means one thread per available processor
+    @Value("${app.auth.hashing.threads:0}")
+    private int threads;
+
+    @Value("${app.auth.hashing.queue-capacity:256}")
+    private int queueCapacity;
+
+    private ThreadPoolExecutor executor;
+
+    private final AtomicLong hashed = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong rehashed = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong totalHashNanos = new AtomicLong();
+    private final AtomicLong maxHashNanos = new AtomicLong();
+
+    /**
+     * Thrown (as the cause of the failed future) when the hashing queue, or AuthService's queue
+     * for the writes that follow hashing, is full; answered with 503
+     */
+    public static class Saturated extends RejectedExecutionException {
+        private static final long serialVersionUID = 1L;
+
+        public Saturated() {
+            this("Password hashing queue is full");
+        }
+
+        public Saturated(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * Outcome of a verification: whether the password matched and, if the stored hash used a
+     * weaker cost factor than configured, the replacement hash to store
+     */
+    public static final class Verification {
+        private final boolean matched;
+        private final String upgradedHash;
+
+        private Verification(boolean matched, String upgradedHash) {
+            this.matched = matched;
+            this.upgradedHash = upgradedHash;
+        }
+
+        public boolean isMatched() {
+            return matched;
+        }
+
+        public String getUpgradedHash() {
+            return upgradedHash;
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger counter = new AtomicInteger();
+        executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "password-hasher-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdown();
+    }
+
+    /**
+     * Hash a new password
+     */
+    public CompletableFuture<String> encode(String rawPassword) {
+        return submit(() -> passwordEncoder.encode(rawPassword));
+    }
+
+    /**
+     * Check a password against a stored hash, rehashing it in the same task when the stored
+     * hash is due for an upgrade
+     */
+    public CompletableFuture<Verification> verify(String rawPassword, String encodedPassword) {
+        return submit(() -> {
+            if (rawPassword == null || encodedPassword == null || !passwordEncoder.matches(rawPassword, encodedPassword)) {
+                return new Verification(false, null);
+            }
+            if (!passwordEncoder.upgradeEncoding(encodedPassword)) {
+                return new Verification(true, null);
+            }
+            rehashed.incrementAndGet();
+            return new Verification(true, passwordEncoder.encode(rawPassword));
+        });
+    }
+
+    public Map<String, Object> getStats() {
+        long count = hashed.get();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("threads", executor.getCorePoolSize());
+        stats.put("active", executor.getActiveCount());
+        stats.put("queueDepth", executor.getQueue().size());
+        stats.put("queueCapacity", queueCapacity);
+        stats.put("completed", count);
+        stats.put("rejected", rejected.get());
+        stats.put("rehashed", rehashed.get());
+        stats.put("avgQueueWaitMs", count > 0 ? totalWaitNanos.get() / count / 1_000_000.0 : 0.0);
+        stats.put("avgHashMs", count > 0 ? totalHashNanos.get() / count / 1_000_000.0 : 0.0);
+        stats.put("maxHashMs", maxHashNanos.get() / 1_000_000.0);
+        return stats;
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> task) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        long queuedAt = System.nanoTime();
+        try {
+            executor.execute(() -> {
+                long startedAt = System.nanoTime();
+                try {
+                    future.complete(task.get());
+                } catch (RuntimeException e) {
+                    future.completeExceptionally(e);
+                } finally {
+                    long took = System.nanoTime() - startedAt;
+                    totalWaitNanos.addAndGet(startedAt - queuedAt);
+                    totalHashNanos.addAndGet(took);
+                    maxHashNanos.accumulateAndGet(took, Math::max);
+                    hashed.incrementAndGet();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.incrementAndGet();
+            future.completeExceptionally(new Saturated());
+        }
+        return future;
+    }
+}
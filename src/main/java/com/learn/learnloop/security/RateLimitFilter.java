@@ -0,0 +1,334 @@
+package com.learn.learnloop.security;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.web.context.HttpSessionSecurityContextRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.web.cors.CorsConfiguration;
+import org.springframework.web.cors.CorsConfigurationSource;
+import org.springframework.web.cors.CorsProcessor;
+import org.springframework.web.cors.DefaultCorsProcessor;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.annotation.PostConstruct;
+import javax.servlet.FilterChain;
+import javax.servlet.ReadListener;
+import javax.servlet.ServletException;
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpSession;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token-bucket limits on the endpoints that cost a user lookup plus BCrypt or open an attempt,
+ * keyed by client IP and by username. Registered ahead of the Spring Security chain (see
+ * RateLimitConfig) so rejected requests never reach session or authentication work; that also
+ * means they skip the chain's CORS handling, so rejections apply the same CORS configuration
+ * themselves for the browser to be able to read the 429.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    @Qualifier("corsConfigurationSource") // Spring MVC's HandlerMappingIntrospector is one as well
+    private CorsConfigurationSource corsConfigurationSource;
+
+    private final CorsProcessor corsProcessor = new DefaultCorsProcessor();
+
+    @Value("${app.rate-limit.enabled:true}")
+    private boolean enabled;
+
+    // Per limit; beyond this many tracked keys new keys share a bucket (see TokenBuckets)
+    @Value("${app.rate-limit.max-keys:100000}")
+    private int maxKeys;
+
+    // Largest body read to find the username; credentials are a few dozen bytes
+    @Value("${app.rate-limit.max-body-bytes:4096}")
+    private int maxBodyBytes;
+
+    @Value("${app.rate-limit.login.per-ip-per-minute:300}")
+    private int loginPerIp;
+
+    @Value("${app.rate-limit.login.per-user-per-minute:10}")
+    private int loginPerUser;
+
+    @Value("${app.rate-limit.signup.per-ip-per-minute:60}")
+    private int signupPerIp;
+
+    @Value("${app.rate-limit.attempt-start.per-ip-per-minute:1000}")
+    private int attemptStartPerIp;
+
+    @Value("${app.rate-limit.attempt-start.per-user-per-minute:30}")
+    private int attemptStartPerUser;
+
+    private final Map<String, Route> routes = new LinkedHashMap<>();
+    private final AtomicLong evicted = new AtomicLong();
+
+    /**
+     * Where a route's per-user key comes from
+     */
+    private enum UserKey {
+        NONE,
+        BODY_USERNAME, // "username" field of the JSON body, for requests made before signing in
+        SESSION        // the signed-in user of the session
+    }
+
+    private static final class Route {
+        private final String name;
+        private final TokenBuckets byIp;
+        private final TokenBuckets byUser;
+        private final UserKey userKey;
+        private final AtomicLong allowed = new AtomicLong();
+        private final AtomicLong rejectedByIp = new AtomicLong();
+        private final AtomicLong rejectedByUser = new AtomicLong();
+        private final AtomicLong rejectedTooLarge = new AtomicLong();
+
+        private Route(String name, TokenBuckets byIp, TokenBuckets byUser, UserKey userKey) {
+            this.name = name;
+            this.byIp = byIp;
+            this.byUser = byUser;
+            this.userKey = userKey;
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        addRoute("login", "/api/auth/login", loginPerIp, loginPerUser, UserKey.BODY_USERNAME);
+        addRoute("signup", "/api/auth/signup", signupPerIp, 0, UserKey.NONE);
+        addRoute("attemptStart", "/api/quiz-attempts/start", attemptStartPerIp, attemptStartPerUser, UserKey.SESSION);
+    }
+
+    private void addRoute(String name, String path, int perIp, int perUser, UserKey userKey) {
+        routes.put(path, new Route(name, perMinute(perIp), perUser > 0 ? perMinute(perUser) : null,
+                perUser > 0 ? userKey : UserKey.NONE));
+    }
+
+    private TokenBuckets perMinute(int limit) {
+        return new TokenBuckets(limit, 1, TimeUnit.MINUTES, maxKeys);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || !"POST".equals(request.getMethod())
+                || !routes.containsKey(request.getRequestURI().substring(request.getContextPath().length()));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Route route = routes.get(request.getRequestURI().substring(request.getContextPath().length()));
+        long now = System.nanoTime();
+
+        String ip = request.getRemoteAddr();
+        long wait = route.byIp.tryAcquire(ip, now);
+        if (wait > 0) {
+            route.rejectedByIp.incrementAndGet();
+            reject(request, response, wait);
+            return;
+        }
+
+        HttpServletRequest forwarded = request;
+        String user = null;
+        if (route.userKey == UserKey.BODY_USERNAME) {
+            // Bounded before anything is buffered, so large bodies cannot exhaust the heap
+            CachedBodyRequest cached = request.getContentLengthLong() <= maxBodyBytes
+                    ? CachedBodyRequest.read(request, maxBodyBytes) : null;
+            if (cached == null) {
+                route.rejectedTooLarge.incrementAndGet();
+                writeError(request, response, HttpStatus.PAYLOAD_TOO_LARGE, "Request body too large");
+                return;
+            }
+            forwarded = cached;
+            user = usernameFromBody(cached.body);
+        } else if (route.userKey == UserKey.SESSION) {
+            user = sessionUser(request);
+        }
+        if (user != null) {
+            // Unknown users past max-keys share a bucket per IP, not one for everybody
+            wait = route.byUser.tryAcquire(user, ip, now);
+            if (wait > 0) {
+                route.rejectedByUser.incrementAndGet();
+                reject(request, response, wait);
+                return;
+            }
+        }
+
+        route.allowed.incrementAndGet();
+        chain.doFilter(forwarded, response);
+    }
+
+    /**
+     * Forget keys whose buckets have refilled, so memory follows recent traffic only
+     */
+    @Scheduled(fixedDelayString = "${app.rate-limit.sweep-interval-ms:60000}")
+    public void evictIdleKeys() {
+        long now = System.nanoTime();
+        for (Route route : routes.values()) {
+            evicted.addAndGet(route.byIp.evictIdle(now));
+            if (route.byUser != null) {
+                evicted.addAndGet(route.byUser.evictIdle(now));
+            }
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        for (Route route : routes.values()) {
+            Map<String, Object> routeStats = new LinkedHashMap<>();
+            routeStats.put("allowed", route.allowed.get());
+            routeStats.put("rejectedByIp", route.rejectedByIp.get());
+            routeStats.put("rejectedByUser", route.rejectedByUser.get());
+            routeStats.put("rejectedTooLarge", route.rejectedTooLarge.get());
+            routeStats.put("trackedIps", route.byIp.size());
+            routeStats.put("trackedUsers", route.byUser != null ? route.byUser.size() : 0);
+            stats.put(route.name, routeStats);
+        }
+        stats.put("evictedKeys", evicted.get());
+        return stats;
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response, long waitNanos)
+            throws IOException {
+        long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        writeError(request, response, HttpStatus.TOO_MANY_REQUESTS, "Too many requests, please retry later");
+    }
+
+    private void writeError(HttpServletRequest request, HttpServletResponse response, HttpStatus status,
+                            String message) throws IOException {
+        CorsConfiguration cors = corsConfigurationSource.getCorsConfiguration(request);
+        if (cors != null && !corsProcessor.processRequest(cors, request, response)) {
+            return; // origin not allowed: the processor has answered 403 as the security chain would
+        }
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), Map.of("error", message));
+    }
+
+    private String usernameFromBody(byte[] body) {
+        try {
+            JsonNode username = objectMapper.readTree(body).get("username");
+            return username != null && username.isTextual() ? username.asText() : null;
+        } catch (IOException e) {
+            return null; // malformed bodies are left for the controller to reject
+        }
+    }
+
+    private static String sessionUser(HttpServletRequest request) {
+        HttpSession session = request.getSession(false);
+        Object context = session != null
+                ? session.getAttribute(HttpSessionSecurityContextRepository.SPRING_SECURITY_CONTEXT_KEY) : null;
+        if (!(context instanceof SecurityContext)) {
+            return null;
+        }
+        Authentication auth = ((SecurityContext) context).getAuthentication();
+        return auth != null ? auth.getName() : null;
+    }
+
+    /**
+     * Reads the body once so the filter can look at it and the controller can still read it
+     */
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+        private final byte[] body;
+
+        private CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        /**
+         * Buffer the body, or null without reading past limit + 1 bytes if it is larger than limit
+         */
+        private static CachedBodyRequest read(HttpServletRequest request, int limit) throws IOException {
+            byte[] buffer = new byte[limit + 1];
+            InputStream in = request.getInputStream();
+            int length = 0;
+            int read;
+            while (length < buffer.length && (read = in.read(buffer, length, buffer.length - length)) != -1) {
+                length += read;
+            }
+            return length <= limit ? new CachedBodyRequest(request, Arrays.copyOf(buffer, length)) : null;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) {
+                    return in.read(buffer, offset, length);
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                // The body is already in memory, so it is all available at once
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    try {
+                        listener.onDataAvailable();
+                        listener.onAllDataRead();
+                    } catch (IOException e) {
+                        listener.onError(e);
+                    }
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            Charset charset = encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8;
+            return new BufferedReader(new InputStreamReader(getInputStream(), charset));
+        }
+
+        @Override
+        public int getContentLength() {
+            return body.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return body.length;
+        }
+    }
+}
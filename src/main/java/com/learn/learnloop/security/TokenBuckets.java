@@ -0,0 +1,105 @@
+package com.learn.learnloop.security;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token buckets by key, each a single AtomicLong updated by CAS (the generic cell rate form of a
+ * token bucket: the stored value is the time at which the bucket will be full again, so no
+ * separate token count or refill timestamp is needed). A key whose bucket is full carries no
+ * state and is dropped by evictIdle.
+ *
+ * Past maxKeys an unknown key is charged to a bucket it shares with others, so an attacker cycling
+ * keys cannot grow the map without bound. Given a fallback key (the client IP for per-user limits)
+ * the shared bucket is per fallback key, for up to another maxKeys of them; only past that do
+ * unknown keys share a single bucket. The trade-off: an attacker who keeps maxKeys keys busy
+ * throttles new keys that land in a shared bucket with them until evictIdle frees room, which
+ * for per-user limits takes as many live IPs as well.
+ */
+public class TokenBuckets {
+
+    private static final String OVERFLOW_KEY = "\u0000overflow";
+    private static final String FALLBACK_PREFIX = "\u0000fallback:";
+
+    private final long intervalNanos; // time to earn back one token
+    private final long burstNanos;    // time to refill a whole empty bucket
+    private final int maxKeys;
+    private final Map<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+
+    /**
+     * A bucket of capacity tokens, refilled at capacity tokens per period
+     */
+    public TokenBuckets(int capacity, long period, TimeUnit unit, int maxKeys) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Rate limit capacity must be positive");
+        }
+        this.burstNanos = unit.toNanos(period);
+        this.intervalNanos = Math.max(1, burstNanos / capacity);
+        this.maxKeys = maxKeys;
+    }
+
+    /**
+     * Take one token for the key: 0 if it was available, else how many nanoseconds until one is
+     */
+    public long tryAcquire(String key, long nowNanos) {
+        return tryAcquire(key, null, nowNanos);
+    }
+
+    /**
+     * As tryAcquire(key, nowNanos), charging an unknown key to fallbackKey's shared bucket once
+     * maxKeys keys are tracked
+     */
+    public long tryAcquire(String key, String fallbackKey, long nowNanos) {
+        AtomicLong bucket = buckets.get(key);
+        if (bucket == null) {
+            bucket = buckets.computeIfAbsent(bucketKey(key, fallbackKey), k -> new AtomicLong(nowNanos));
+        }
+        while (true) {
+            long fullAt = bucket.get();
+            long base = fullAt - nowNanos > 0 ? fullAt : nowNanos;
+            long next = base + intervalNanos;
+            if (next - nowNanos > burstNanos) {
+                return next - nowNanos - burstNanos;
+            }
+            if (bucket.compareAndSet(fullAt, next)) {
+                return 0;
+            }
+        }
+    }
+
+    private String bucketKey(String key, String fallbackKey) {
+        int size = buckets.size();
+        if (size < maxKeys) {
+            return key;
+        }
+        if (fallbackKey != null) {
+            String fallback = FALLBACK_PREFIX + fallbackKey;
+            if (size < 2 * maxKeys || buckets.containsKey(fallback)) {
+                return fallback;
+            }
+        }
+        return OVERFLOW_KEY;
+    }
+
+    /**
+     * Drop every bucket that has refilled completely; returns how many were dropped
+     */
+    public int evictIdle(long nowNanos) {
+        int evicted = 0;
+        for (Map.Entry<String, AtomicLong> entry : buckets.entrySet()) {
+            AtomicLong bucket = entry.getValue();
+            // remove(key, value) only succeeds if no newer bucket replaced this one; a token taken
+            // between the check and the removal is forgiven, which errs on the lenient side
+            if (bucket.get() - nowNanos <= 0 && buckets.remove(entry.getKey(), bucket)) {
+                evicted++;
+            }
+        }
+        return evicted;
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+}
@@ -0,0 +1,120 @@
+package com.learn.learnloop.service;
+
+import com.learn.learnloop.model.QuizAttempt;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Deletes untimed attempts that were started but never submitted, in small paced batches so the
+ * cleanup never competes with foreground traffic. Timed attempts are auto-submitted by
+ * QuizAttemptDeadlines instead.
+ */
+@Component
+public class AbandonedAttemptReaper {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    // Open attempts started longer ago than this are considered abandoned
+    @Value("${app.quiz.reaper.abandoned-after-hours:24}")
+    private long abandonedAfterHours;
+
+    @Value("${app.quiz.reaper.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.quiz.reaper.max-batches-per-run:100}")
+    private int maxBatchesPerRun;
+
+    @Value("${app.quiz.reaper.batch-pause-ms:200}")
+    private long batchPauseMillis;
+
+    private final AtomicLong runs = new AtomicLong();
+    private final AtomicLong reaped = new AtomicLong();
+    private final AtomicLong reapingMillis = new AtomicLong();
+    private volatile long lastRunReaped;
+    private volatile long lastRunMillis;
+    private volatile LocalDateTime lastRunAt;
+
+    @Scheduled(initialDelayString = "${app.quiz.reaper.initial-delay-ms:60000}",
+               fixedDelayString = "${app.quiz.reaper.interval-ms:600000}")
+    public void reap() {
+        long started = System.currentTimeMillis();
+        LocalDateTime cutoff = LocalDateTime.now().minusHours(abandonedAfterHours);
+        long deleted = 0;
+
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            // Oldest first along the (completed, startedAt) index
+            Query candidates = new Query(abandoned(cutoff))
+                    .with(Sort.by(Sort.Direction.ASC, "startedAt"))
+                    .limit(batchSize);
+            candidates.fields().include("id");
+            List<String> ids = new ArrayList<>(batchSize);
+            for (QuizAttempt attempt : mongoTemplate.find(candidates, QuizAttempt.class)) {
+                ids.add(attempt.getId());
+            }
+            if (ids.isEmpty()) {
+                break;
+            }
+
+            // Re-check the filter so an attempt submitted in the meantime is kept
+            deleted += mongoTemplate.remove(
+                    new Query(abandoned(cutoff).and("id").in(ids)), QuizAttempt.class).getDeletedCount();
+            if (ids.size() < batchSize || !pause()) {
+                break;
+            }
+        }
+
+        long elapsed = System.currentTimeMillis() - started;
+        runs.incrementAndGet();
+        reaped.addAndGet(deleted);
+        reapingMillis.addAndGet(elapsed);
+        lastRunReaped = deleted;
+        lastRunMillis = elapsed;
+        lastRunAt = LocalDateTime.now();
+        if (deleted > 0) {
+            System.out.println("Reaped " + deleted + " abandoned quiz attempts in " + elapsed + " ms");
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("runs", runs.get());
+        stats.put("reapedTotal", reaped.get());
+        stats.put("reapingMillisTotal", reapingMillis.get());
+        stats.put("lastRunReaped", lastRunReaped);
+        stats.put("lastRunMillis", lastRunMillis);
+        stats.put("lastRunAt", lastRunAt);
+        stats.put("abandonedAfterHours", abandonedAfterHours);
+        return stats;
+    }
+
+    private static Criteria abandoned(LocalDateTime cutoff) {
+        return Criteria.where("completed").is(false)
+                .and("startedAt").lt(cutoff)
+                .and("deadlineAt").is(null);
+    }
+
+    private boolean pause() {
+        try {
+            Thread.sleep(batchPauseMillis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.learn.learnloop.service;
+
+import com.learn.learnloop.model.Quiz;
+import com.learn.learnloop.model.QuizSnapshot;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Answer key compiled once per quiz version: question ID to dense index, with the correct
+ * options of each question held as a bitmask of option indices
+ */
+public final class AnswerKey {
+
+    // Option indices must fit in a long mask; wider questions fall back to list comparison
+    public static final int MAX_MASK_OPTIONS = 64;
+    private static final long NOT_A_MASK = -1L;
+
+    private final String quizId;
+    private final LocalDateTime version;
+    private final int passingScore;
+    private final int timeLimit;
+    private final int questionCount;
+
+    private final Map<String, Integer> indexByQuestionId;
+    private final long[] correctMasks;
+    private final boolean[] singleChoice;
+    private final List<List<String>> fallbackOptions; // null entries where the mask is used
+
+    private AnswerKey(String quizId, LocalDateTime version, int passingScore, int timeLimit,
+                      List<Quiz.Question> questions) {
+        int count = questions != null ? questions.size() : 0;
+
+        this.quizId = quizId;
+        this.version = version;
+        this.passingScore = passingScore;
+        this.timeLimit = timeLimit;
+        this.questionCount = count;
+        this.indexByQuestionId = new HashMap<>(Math.max(16, count * 2));
+        this.correctMasks = new long[count];
+        this.singleChoice = new boolean[count];
+        this.fallbackOptions = new ArrayList<>(Collections.nCopies(count, null));
+
+        for (int i = 0; i < count; i++) {
+            Quiz.Question question = questions.get(i);
+            indexByQuestionId.putIfAbsent(question.getId(), i);
+            singleChoice[i] = "MULTIPLE_CHOICE".equals(question.getType());
+            correctMasks[i] = toMask(question.getCorrectOptions());
+            if (correctMasks[i] == NOT_A_MASK) {
+                fallbackOptions.set(i, question.getCorrectOptions());
+            }
+        }
+    }
+
+    public static AnswerKey compile(Quiz quiz) {
+        return new AnswerKey(quiz.getId(), quiz.getUpdatedAt(), quiz.getPassingScore(), quiz.getTimeLimit(),
+                quiz.getQuestions());
+    }
+
+    /**
+     * Key for an immutable snapshot; it never goes stale, so it carries no updatedAt version
+     */
+    public static AnswerKey compile(QuizSnapshot snapshot) {
+        return new AnswerKey(snapshot.getQuizId(), null, snapshot.getPassingScore(), snapshot.getTimeLimit(),
+                snapshot.getQuestions());
+    }
+
+    /**
+     * Whether this key was compiled from the given version of its quiz
+     */
+    public boolean isVersion(LocalDateTime updatedAt) {
+        return version == null ? updatedAt == null : version.equals(updatedAt);
+    }
+
+    public String getQuizId() {
+        return quizId;
+    }
+
+    public int getPassingScore() {
+        return passingScore;
+    }
+
+    public int getTimeLimit() {
+        return timeLimit;
+    }
+
+    public int getQuestionCount() {
+        return questionCount;
+    }
+
+    /**
+     * Dense index of a question, or -1 if the quiz has no such question
+     */
+    public int indexOf(String questionId) {
+        Integer index = questionId != null ? indexByQuestionId.get(questionId) : null;
+        return index != null ? index : -1;
+    }
+
+    /**
+     * Score one response against the question at the given index
+     */
+    public boolean isCorrect(int index, List<String> selectedOptions) {
+        if (selectedOptions == null) {
+            return false;
+        }
+        if (fallbackOptions.get(index) != null) {
+            return isCorrectByList(index, selectedOptions);
+        }
+
+        long selected = toMask(selectedOptions);
+        if (selected == NOT_A_MASK) {
+            return false;
+        }
+        long correct = correctMasks[index];
+        if (singleChoice[index]) {
+            // Single choice - exactly one option, and it must be a correct one
+            return selectedOptions.size() == 1 && (selected & correct) == selected;
+        }
+        // Multiple answer - must select all correct options and no incorrect ones
+        return selected == correct;
+    }
+
+    /**
+     * Encode option indices ("0", "3", ...) as a bitmask; NOT_A_MASK for anything unparsable
+     */
+    static long toMask(List<String> options) {
+        if (options == null) {
+            return 0L;
+        }
+        long mask = 0L;
+        for (int i = 0, n = options.size(); i < n; i++) {
+            int option = parseOption(options.get(i));
+            if (option < 0) {
+                return NOT_A_MASK;
+            }
+            mask |= 1L << option;
+        }
+        return mask;
+    }
+
+    private static int parseOption(String option) {
+        if (option == null || option.isEmpty() || option.length() > 2) {
+            return -1;
+        }
+        int value = 0;
+        for (int i = 0; i < option.length(); i++) {
+            char c = option.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value < MAX_MASK_OPTIONS ? value : -1;
+    }
+
+    /**
+     * Original list-based rules, for answer keys that cannot be expressed as a mask
+     */
+    private boolean isCorrectByList(int index, List<String> selectedOptions) {
+        List<String> correct = fallbackOptions.get(index);
+        if (singleChoice[index]) {
+            return selectedOptions.size() == 1 && correct.containsAll(selectedOptions);
+        }
+        return selectedOptions.size() == correct.size() && correct.containsAll(selectedOptions);
+    }
+}
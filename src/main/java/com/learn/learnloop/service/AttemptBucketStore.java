@@ -0,0 +1,253 @@
+package com.learn.learnloop.service;
+
+import com.learn.learnloop.model.AttemptBucket;
+import com.learn.learnloop.model.AttemptBucketMigration;
+import com.learn.learnloop.model.BucketedAttempt;
+import com.learn.learnloop.model.QuizAttempt;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.util.CloseableIterator;
+import org.bson.Document;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Optional bucketed layout for completed attempts (app.quiz.attempts.layout=bucketed): submits
+ * also append to the user's current bucket, an online migration copies older attempts, and user
+ * history is read from buckets once the migration has completed. quiz_attempts stays the
+ * system of record for open attempts and per-quiz queries.
+ */
+@Component
+public class AttemptBucketStore {
+
+    public static final String LAYOUT_DOCUMENT = "document";
+    public static final String LAYOUT_BUCKETED = "bucketed";
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${app.quiz.attempts.layout:document}")
+    private String layout;
+
+    private final AtomicBoolean migrating = new AtomicBoolean();
+    private volatile boolean readFromBuckets;
+
+    @PostConstruct
+    public void init() {
+        if (!isBucketed()) {
+            return;
+        }
+        // Remember when dual writes began; the migration copies everything completed before
+        mongoTemplate.upsert(Query.query(Criteria.where("id").is(AttemptBucketMigration.ID)),
+                new Update().setOnInsert("status", AttemptBucketMigration.NOT_STARTED)
+                        .setOnInsert("dualWriteSince", LocalDateTime.now()),
+                AttemptBucketMigration.class);
+        readFromBuckets = AttemptBucketMigration.COMPLETED.equals(getMigration().getStatus());
+    }
+
+    public boolean isBucketed() {
+        return LAYOUT_BUCKETED.equalsIgnoreCase(layout);
+    }
+
+    /**
+     * Whether user history should be served from buckets
+     */
+    public boolean isReadable() {
+        return isBucketed() && readFromBuckets;
+    }
+
+    /**
+     * Dual write of a freshly completed attempt into the user's newest live bucket with room.
+     * Migrated buckets are never appended to, so a retried migration can drop them safely.
+     */
+    public void append(QuizAttempt attempt) {
+        if (!isBucketed() || !attempt.isCompleted()) {
+            return;
+        }
+        Query open = Query.query(Criteria.where("userId").is(attempt.getUserId())
+                .and("migrated").is(false)
+                .and("count").lt(AttemptBucket.MAX_ATTEMPTS))
+                .with(Sort.by(Sort.Direction.DESC, "bucketEnd"));
+        Update update = new Update()
+                .push("attempts", BucketedAttempt.of(attempt))
+                .inc("count", 1)
+                .min("bucketStart", attempt.getCompletedAt())
+                .max("bucketEnd", attempt.getCompletedAt());
+        mongoTemplate.findAndModify(open, update, FindAndModifyOptions.options().upsert(true), AttemptBucket.class);
+    }
+
+    /**
+     * A user's completed attempts, newest first
+     */
+    public List<QuizAttempt> findCompletedByUser(String userId) {
+        return findCompleted(Criteria.where("userId").is(userId), null);
+    }
+
+    /**
+     * A user's completed attempts on one quiz, newest first
+     */
+    public List<QuizAttempt> findCompletedByUserAndQuiz(String userId, String quizId) {
+        return findCompleted(Criteria.where("userId").is(userId).and("attempts.quizId").is(quizId), quizId);
+    }
+
+    /**
+     * Take a deleted quiz's attempts out of every bucket, dropping buckets left empty
+     */
+    public void removeQuiz(String quizId) {
+        if (!isBucketed()) {
+            return;
+        }
+        Query holding = Query.query(Criteria.where("attempts.quizId").is(quizId));
+        AggregationUpdate withoutQuiz = AggregationUpdate.from(List.of(
+                context -> new Document("$set", new Document("attempts", new Document("$filter",
+                        new Document("input", "$attempts")
+                                .append("cond", new Document("$ne", List.of("$$this.quizId", quizId)))))),
+                context -> new Document("$set", new Document("count", new Document("$size", "$attempts")))));
+        mongoTemplate.updateMulti(holding, withoutQuiz, AttemptBucket.class);
+        mongoTemplate.remove(Query.query(Criteria.where("count").is(0)), AttemptBucket.class);
+    }
+
+    public AttemptBucketMigration getMigration() {
+        AttemptBucketMigration migration = mongoTemplate.findById(AttemptBucketMigration.ID, AttemptBucketMigration.class);
+        if (migration == null) {
+            migration = new AttemptBucketMigration();
+            migration.setId(AttemptBucketMigration.ID);
+            migration.setStatus(AttemptBucketMigration.NOT_STARTED);
+        }
+        return migration;
+    }
+
+    /**
+     * Start copying attempts completed before dual writes began into buckets, resuming after the
+     * last fully copied user; returns false if the layout is off or a migration is running
+     */
+    public boolean startMigration() {
+        if (!isBucketed() || !migrating.compareAndSet(false, true)) {
+            return false;
+        }
+        Thread thread = new Thread(() -> {
+            try {
+                migrate();
+            } finally {
+                migrating.set(false);
+            }
+        }, "attempt-bucket-migration");
+        thread.setDaemon(true);
+        thread.start();
+        return true;
+    }
+
+    private List<QuizAttempt> findCompleted(Criteria bucketFilter, String quizId) {
+        List<QuizAttempt> attempts = new ArrayList<>();
+        for (AttemptBucket bucket : mongoTemplate.find(new Query(bucketFilter), AttemptBucket.class)) {
+            for (BucketedAttempt attempt : bucket.getAttempts()) {
+                if (quizId == null || quizId.equals(attempt.getQuizId())) {
+                    attempts.add(attempt.toAttempt(bucket.getUserId()));
+                }
+            }
+        }
+        attempts.sort(Comparator.comparing(QuizAttempt::getCompletedAt, Comparator.nullsLast(Comparator.reverseOrder())));
+        return attempts;
+    }
+
+    private void migrate() {
+        AttemptBucketMigration state = getMigration();
+        String resumeAfter = state.getLastUserId();
+        setMigration(new Update().set("status", AttemptBucketMigration.RUNNING).set("error", null)
+                .set("startedAt", state.getStartedAt() != null ? state.getStartedAt() : LocalDateTime.now()));
+
+        // A user interrupted mid-copy is copied again from scratch; migrated buckets only ever
+        // hold copies, live submits go to buckets of their own
+        Criteria partial = Criteria.where("migrated").is(true);
+        if (resumeAfter != null) {
+            partial.and("userId").gt(resumeAfter);
+        }
+        mongoTemplate.remove(new Query(partial), AttemptBucket.class);
+
+        Criteria source = Criteria.where("completed").is(true).and("completedAt").lt(state.getDualWriteSince());
+        if (resumeAfter != null) {
+            source.and("userId").gt(resumeAfter);
+        }
+        // Walks user_completed_idx {userId: 1, completed: 1, completedAt: -1, _id: -1} in its own
+        // order, so Mongo never sorts in memory: one user after another, newest attempt first
+        Query query = new Query(source)
+                .with(Sort.by(Sort.Direction.ASC, "userId", "completed")
+                        .and(Sort.by(Sort.Direction.DESC, "completedAt", "id")))
+                .cursorBatchSize(1000);
+
+        try (CloseableIterator<QuizAttempt> attempts = mongoTemplate.stream(query, QuizAttempt.class)) {
+            String userId = null;
+            List<QuizAttempt> bucket = new ArrayList<>(AttemptBucket.MAX_ATTEMPTS);
+            while (attempts.hasNext()) {
+                QuizAttempt attempt = attempts.next();
+                if (userId != null && !userId.equals(attempt.getUserId())) {
+                    writeBucket(userId, bucket);
+                    userCopied(userId);
+                }
+                if (bucket.size() == AttemptBucket.MAX_ATTEMPTS) {
+                    writeBucket(attempt.getUserId(), bucket);
+                }
+                userId = attempt.getUserId();
+                bucket.add(attempt);
+            }
+            if (userId != null) {
+                writeBucket(userId, bucket);
+                userCopied(userId);
+            }
+            setMigration(new Update().set("status", AttemptBucketMigration.COMPLETED)
+                    .set("completedAt", LocalDateTime.now()));
+            readFromBuckets = true;
+            System.out.println("Attempt bucket migration completed");
+        } catch (RuntimeException e) {
+            System.err.println("Attempt bucket migration failed: " + e.getMessage());
+            setMigration(new Update().set("status", AttemptBucketMigration.FAILED).set("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Insert one migrated bucket from attempts streamed newest first; stored oldest first, the
+     * same order live appends produce
+     */
+    private void writeBucket(String userId, List<QuizAttempt> attempts) {
+        if (attempts.isEmpty()) {
+            return;
+        }
+        Collections.reverse(attempts);
+        AttemptBucket bucket = new AttemptBucket();
+        bucket.setUserId(userId);
+        bucket.setCount(attempts.size());
+        bucket.setBucketStart(attempts.get(0).getCompletedAt());
+        bucket.setBucketEnd(attempts.get(attempts.size() - 1).getCompletedAt());
+        bucket.setMigrated(true);
+        List<BucketedAttempt> bucketed = new ArrayList<>(attempts.size());
+        attempts.forEach(attempt -> bucketed.add(BucketedAttempt.of(attempt)));
+        bucket.setAttempts(bucketed);
+        mongoTemplate.insert(bucket);
+        setMigration(new Update().inc("migratedAttempts", attempts.size()));
+        attempts.clear();
+    }
+
+    private void userCopied(String userId) {
+        setMigration(new Update().set("lastUserId", userId));
+    }
+
+    private void setMigration(Update update) {
+        mongoTemplate.upsert(Query.query(Criteria.where("id").is(AttemptBucketMigration.ID)),
+                update.set("updatedAt", LocalDateTime.now()), AttemptBucketMigration.class);
+    }
+}
@@ -2,33 +2,123 @@ package com.learn.learnloop.service;
 
 import com.learn.learnloop.model.User;
 import com.learn.learnloop.repository.UserRepository;
+import com.learn.learnloop.security.PasswordHasher;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
+/**
+ * Signup and login; the password hashing itself runs on the PasswordHasher pool and the user
+ * writes that follow it on a small bounded pool of their own, so both return futures that fail
+ * with PasswordHasher.Saturated when either pool is overloaded
+ */
 @Service
 public class AuthService {
     @Autowired
     private UserRepository userRepository;
 
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private PasswordHasher passwordHasher;
 
-    public User signup(User user) {
-        user.setPassword(passwordEncoder.encode(user.getPassword()));
-        if (user.getRole() == null) {
-            user.setRole("USER");
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${app.auth.writes.threads:4}")
+    private int writeThreads;
+
+    @Value("${app.auth.writes.queue-capacity:256}")
+    private int writeQueueCapacity;
+
+    // Keeps the hashing threads on BCrypt only, and off any pool shared with other work
+    private ThreadPoolExecutor writeExecutor;
+
+    @PostConstruct
+    public void start() {
+        AtomicInteger counter = new AtomicInteger();
+        writeExecutor = new ThreadPoolExecutor(writeThreads, writeThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(writeQueueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "auth-writer-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    public void stop() {
+        writeExecutor.shutdown();
+    }
+
+    public CompletableFuture<User> signup(User user) {
+        if (userRepository.findByUsername(user.getUsername()).isPresent()) {
+            throw new IllegalArgumentException("Username already exists");
         }
-        return userRepository.save(user);
+        return passwordHasher.encode(user.getPassword()).thenCompose(hash -> write(() -> {
+            user.setPassword(hash);
+            if (user.getRole() == null) {
+                user.setRole("USER");
+            }
+            return userRepository.save(user);
+        }));
     }
 
-    public User login(String username, String password) {
+    /**
+     * The user if the credentials match, else null. A hash made with a lower cost factor than
+     * the configured one is replaced on the way.
+     */
+    public CompletableFuture<User> login(String username, String password) {
         Optional<User> userOpt = userRepository.findByUsername(username);
-        if (userOpt.isPresent() && passwordEncoder.matches(password, userOpt.get().getPassword())) {
-            return userOpt.get();
+        if (userOpt.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        User user = userOpt.get();
+        return passwordHasher.verify(password, user.getPassword()).thenCompose(verification -> {
+            if (!verification.isMatched()) {
+                return CompletableFuture.completedFuture(null);
+            }
+            if (verification.getUpgradedHash() == null) {
+                return CompletableFuture.completedFuture(user);
+            }
+            return write(() -> {
+                // Only replace the hash that was verified, never a password changed meanwhile
+                mongoTemplate.updateFirst(
+                        Query.query(Criteria.where("id").is(user.getId()).and("password").is(user.getPassword())),
+                        Update.update("password", verification.getUpgradedHash()), User.class);
+                return user;
+            });
+        });
+    }
+
+    /**
+     * Run a user write on the write pool; fails with Saturated (503) when its queue is full
+     */
+    private <T> CompletableFuture<T> write(Supplier<T> task) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            writeExecutor.execute(() -> {
+                try {
+                    future.complete(task.get());
+                } catch (RuntimeException e) {
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(new PasswordHasher.Saturated("User write queue is full"));
         }
-        return null;
+        return future;
     }
 }
@@ -0,0 +1,104 @@
+package com.learn.learnloop.service;
+
+import com.learn.learnloop.dto.PageResponse;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Opaque cursor over a (timestamp, id) sort key used for keyset pagination
+ */
+public final class KeysetCursor {
+    
+    private static final char SEPARATOR = '|';
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+    
+    private final LocalDateTime timestamp;
+    private final String id;
+    
+    public KeysetCursor(LocalDateTime timestamp, String id) {
+        this.timestamp = timestamp;
+        this.id = id;
+    }
+    
+    public LocalDateTime getTimestamp() {
+        return timestamp;
+    }
+    
+    public String getId() {
+        return id;
+    }
+    
+    public String encode() {
+        String raw = timestamp + String.valueOf(SEPARATOR) + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    /**
+     * Decode a cursor from a request parameter; null or blank means "first page"
+     */
+    public static KeysetCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(SEPARATOR);
+            if (separator <= 0 || separator == raw.length() - 1) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return new KeysetCursor(LocalDateTime.parse(raw.substring(0, separator)), raw.substring(separator + 1));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+    
+    /**
+     * Criteria selecting rows strictly after this cursor in (timestampField, _id) order
+     */
+    public Criteria after(String timestampField, Sort.Direction direction) {
+        if (direction == Sort.Direction.ASC) {
+            return new Criteria().orOperator(
+                    Criteria.where(timestampField).gt(timestamp),
+                    Criteria.where(timestampField).is(timestamp).and("id").gt(id));
+        }
+        return new Criteria().orOperator(
+                Criteria.where(timestampField).lt(timestamp),
+                Criteria.where(timestampField).is(timestamp).and("id").lt(id));
+    }
+    
+    /**
+     * Parse the "order" request parameter (newest first unless "asc")
+     */
+    public static Sort.Direction direction(String order) {
+        return "asc".equalsIgnoreCase(order) ? Sort.Direction.ASC : Sort.Direction.DESC;
+    }
+    
+    /**
+     * Clamp the requested page size; callers fetch one extra row to detect a following page
+     */
+    public static int pageSize(Integer limit) {
+        if (limit == null) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+    }
+    
+    /**
+     * Trim a pageSize + 1 result to a page and derive the next cursor from its last row
+     */
+    public static <T> PageResponse<T> page(List<T> rows, int pageSize, Function<T, KeysetCursor> cursorOf) {
+        if (rows.size() <= pageSize) {
+            return new PageResponse<>(rows, null);
+        }
+        List<T> items = rows.subList(0, pageSize);
+        return new PageResponse<>(items, cursorOf.apply(items.get(pageSize - 1)).encode());
+    }
+}
@@ -0,0 +1,196 @@
+package com.learn.learnloop.service;
+
+import com.learn.learnloop.dto.LeaderboardEntryDTO;
+import com.learn.learnloop.model.Quiz;
+import com.learn.learnloop.model.QuizAttempt;
+import com.learn.learnloop.model.User;
+import com.learn.learnloop.repository.UserRepository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.util.CloseableIterator;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-quiz and per-category leaderboards of each user's best attempt, held in memory and
+ * updated on every submission; reads never touch Mongo
+ */
+@Service
+public class LeaderboardService {
+
+    private static final int DEFAULT_LIMIT = 10;
+    private static final int MAX_LIMIT = 100;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private final Map<String, RankedScores> quizBoards = new ConcurrentHashMap<>();
+    private final Map<String, RankedScores> categoryBoards = new ConcurrentHashMap<>();
+
+    // Looked up once per user / quiz and kept so reads can render rows without a query
+    private final Map<String, String> usernames = new ConcurrentHashMap<>();
+    private final Map<String, String> quizCategories = new ConcurrentHashMap<>();
+
+    private volatile boolean ready;
+
+    /**
+     * Load all completed attempts in the background once the application is up
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        Thread loader = new Thread(() -> {
+            try {
+                long started = System.currentTimeMillis();
+                int attempts = loadFromAttempts();
+                System.out.println("Leaderboards loaded from " + attempts + " attempts in "
+                        + (System.currentTimeMillis() - started) + " ms");
+            } catch (RuntimeException e) {
+                System.err.println("Failed to load leaderboards: " + e.getMessage());
+            }
+        }, "leaderboard-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    /**
+     * Fold a submitted attempt into its quiz and category boards
+     */
+    public void record(QuizAttempt attempt) {
+        if (!attempt.isCompleted() || attempt.getUserId() == null || attempt.getQuizId() == null) {
+            return;
+        }
+        usernames.computeIfAbsent(attempt.getUserId(),
+                id -> userRepository.findById(id).map(User::getUsername).orElse(""));
+
+        offer(attempt);
+    }
+
+    public List<LeaderboardEntryDTO> getQuizLeaderboard(String quizId, Integer limit) {
+        return render(quizBoards.get(quizId), limit);
+    }
+
+    public List<LeaderboardEntryDTO> getCategoryLeaderboard(String category, Integer limit) {
+        return render(categoryBoards.get(category), limit);
+    }
+
+    /**
+     * A user's own row on a quiz board, or null if they have not completed the quiz
+     */
+    public LeaderboardEntryDTO getQuizRank(String quizId, String userId) {
+        return rankOf(quizBoards.get(quizId), userId);
+    }
+
+    public LeaderboardEntryDTO getCategoryRank(String category, String userId) {
+        return rankOf(categoryBoards.get(category), userId);
+    }
+
+    /**
+     * Drop a deleted quiz's board; category boards keep its results until the next restart
+     */
+    public void removeQuiz(String quizId) {
+        quizBoards.remove(quizId);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Stream every completed attempt into the boards; offers keep only each user's best result,
+     * so submissions recorded while loading merge correctly
+     */
+    private int loadFromAttempts() {
+        Query quizQuery = new Query();
+        quizQuery.fields().include("category");
+        for (Quiz quiz : mongoTemplate.find(quizQuery, Quiz.class)) {
+            if (quiz.getCategory() != null) {
+                quizCategories.put(quiz.getId(), quiz.getCategory());
+            }
+        }
+
+        Query userQuery = new Query();
+        userQuery.fields().include("username");
+        for (User user : mongoTemplate.find(userQuery, User.class)) {
+            usernames.put(user.getId(), user.getUsername() != null ? user.getUsername() : "");
+        }
+
+        Query attemptQuery = new Query(Criteria.where("completed").is(true)).cursorBatchSize(1000);
+        attemptQuery.fields().include("userId", "quizId", "category", "completed", "score", "timeSpent");
+
+        int count = 0;
+        try (CloseableIterator<QuizAttempt> attempts = mongoTemplate.stream(attemptQuery, QuizAttempt.class)) {
+            while (attempts.hasNext()) {
+                QuizAttempt attempt = attempts.next();
+                if (attempt.getUserId() != null && attempt.getQuizId() != null) {
+                    offer(attempt);
+                    count++;
+                }
+            }
+        }
+        ready = true;
+        return count;
+    }
+
+    private void offer(QuizAttempt attempt) {
+        quizBoards.computeIfAbsent(attempt.getQuizId(), id -> new RankedScores())
+                .offer(attempt.getUserId(), attempt.getScore(), attempt.getTimeSpent());
+
+        // Attempts started before categories were recorded fall back to the quiz's category
+        String category = attempt.getCategory() != null
+                ? attempt.getCategory() : quizCategories.get(attempt.getQuizId());
+        if (category != null) {
+            quizCategories.putIfAbsent(attempt.getQuizId(), category);
+            categoryBoards.computeIfAbsent(category, c -> new RankedScores())
+                    .offer(attempt.getUserId(), attempt.getScore(), attempt.getTimeSpent());
+        }
+    }
+
+    private List<LeaderboardEntryDTO> render(RankedScores board, Integer limit) {
+        if (board == null) {
+            return new ArrayList<>();
+        }
+        int size = limit == null ? DEFAULT_LIMIT : Math.max(1, Math.min(limit, MAX_LIMIT));
+        List<RankedScores.Entry> entries = board.top(size);
+        List<LeaderboardEntryDTO> rows = new ArrayList<>(entries.size());
+        for (int i = 0; i < entries.size(); i++) {
+            rows.add(toDTO(i + 1, entries.get(i)));
+        }
+        return rows;
+    }
+
+    private LeaderboardEntryDTO rankOf(RankedScores board, String userId) {
+        if (board == null) {
+            return null;
+        }
+        RankedScores.Entry entry = board.get(userId);
+        int rank = board.rankOf(userId);
+        return entry != null && rank > 0 ? toDTO(rank, entry) : null;
+    }
+
+    private LeaderboardEntryDTO toDTO(int rank, RankedScores.Entry entry) {
+        return new LeaderboardEntryDTO(rank, entry.getUserId(), usernames.getOrDefault(entry.getUserId(), ""),
+                entry.getScore(), entry.getTimeSpent());
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("ready", ready);
+        stats.put("quizBoards", quizBoards.size());
+        stats.put("categoryBoards", categoryBoards.size());
+        stats.put("knownUsers", usernames.size());
+        return stats;
+    }
+}
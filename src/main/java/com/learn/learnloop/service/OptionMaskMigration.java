@@ -0,0 +1,188 @@
+package com.learn.learnloop.service;
+
+import com.learn.learnloop.config.OptionMaskConverters;
+import com.learn.learnloop.model.Quiz;
+import com.learn.learnloop.model.QuizAttempt;
+
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.DocumentCodec;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Background rewrite of quizzes and completed attempts still holding option index lists into the
+ * bitmask form, in paced _id-ordered batches. Reads handle both forms, so the app is correct
+ * before, during and after the migration; the byte counters measure the savings on real data.
+ */
+@Component
+public class OptionMaskMigration {
+
+    private static final DocumentCodec CODEC = new DocumentCodec();
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${app.quiz.option-mask.migrate-on-startup:true}")
+    private boolean migrateOnStartup;
+
+    @Value("${app.quiz.option-mask.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.quiz.option-mask.batch-pause-ms:100}")
+    private long batchPauseMillis;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicLong quizzesRewritten = new AtomicLong();
+    private final AtomicLong attemptsRewritten = new AtomicLong();
+    private final AtomicLong bytesBefore = new AtomicLong();
+    private final AtomicLong bytesAfter = new AtomicLong();
+    private volatile LocalDateTime lastRunAt;
+    private volatile String lastError;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrateOnStartup() {
+        if (migrateOnStartup) {
+            start();
+        }
+    }
+
+    /**
+     * Start a pass in the background; false if one is already running
+     */
+    public boolean start() {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        Thread thread = new Thread(() -> {
+            try {
+                migrate();
+            } finally {
+                running.set(false);
+            }
+        }, "option-mask-migration");
+        thread.setDaemon(true);
+        thread.start();
+        return true;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("running", running.get());
+        stats.put("quizzesRewritten", quizzesRewritten.get());
+        stats.put("attemptsRewritten", attemptsRewritten.get());
+        stats.put("bytesBefore", bytesBefore.get());
+        stats.put("bytesAfter", bytesAfter.get());
+        stats.put("lastRunAt", lastRunAt);
+        stats.put("lastError", lastError);
+        return stats;
+    }
+
+    private void migrate() {
+        long started = System.currentTimeMillis();
+        try {
+            // Quizzes: only rewrite if nobody edited the quiz since it was read
+            rewrite(Quiz.class, "questions", "questions.correctOptions", "updatedAt", null,
+                    OptionMaskConverters.QuestionReader.INSTANCE::convert,
+                    OptionMaskConverters.QuestionWriter.INSTANCE::convert, quizzesRewritten);
+            // Attempts: open ones are still being autosaved and are rewritten on submit anyway
+            rewrite(QuizAttempt.class, "responses", "responses.selectedOptions", "completed", true,
+                    OptionMaskConverters.QuestionResponseReader.INSTANCE::convert,
+                    OptionMaskConverters.QuestionResponseWriter.INSTANCE::convert, attemptsRewritten);
+            lastError = null;
+            System.out.println("Option mask migration finished in " + (System.currentTimeMillis() - started)
+                    + " ms: " + bytesBefore.get() + " -> " + bytesAfter.get() + " bytes");
+        } catch (RuntimeException e) {
+            lastError = e.getMessage();
+            System.err.println("Option mask migration failed: " + e.getMessage());
+        } finally {
+            lastRunAt = LocalDateTime.now();
+        }
+    }
+
+    /**
+     * Walk documents whose array still has a legacy list field and re-encode the whole array;
+     * guardField must equal requiredGuard (when given) and still hold the value that was read
+     */
+    private <T> void rewrite(Class<?> type, String arrayField, String legacyField, String guardField, Object requiredGuard,
+                             Function<Document, T> reader, Function<T, Document> writer, AtomicLong rewritten) {
+        String collection = mongoTemplate.getCollectionName(type);
+        Object lastId = null;
+        while (true) {
+            Criteria criteria = Criteria.where(legacyField).exists(true);
+            if (lastId != null) {
+                criteria.and("_id").gt(lastId);
+            }
+            if (requiredGuard != null) {
+                criteria.and(guardField).is(requiredGuard);
+            }
+            Query batch = new Query(criteria).with(Sort.by(Sort.Direction.ASC, "_id")).limit(batchSize);
+            batch.fields().include("_id").include(arrayField).include(guardField);
+            List<Document> documents = mongoTemplate.find(batch, Document.class, collection);
+            if (documents.isEmpty()) {
+                return;
+            }
+
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, collection);
+            int updates = 0;
+            for (Document document : documents) {
+                lastId = document.get("_id");
+                List<Document> before = document.getList(arrayField, Document.class);
+                if (before == null) {
+                    continue;
+                }
+                List<Document> after = new ArrayList<>(before.size());
+                for (Document element : before) {
+                    after.add(writer.apply(reader.apply(element)));
+                }
+                if (after.equals(before)) {
+                    continue; // nothing could be encoded
+                }
+                bulk.updateOne(
+                        Query.query(Criteria.where("_id").is(lastId).and(guardField).is(document.get(guardField))),
+                        new Update().set(arrayField, after));
+                bytesBefore.addAndGet(bsonSize(before));
+                bytesAfter.addAndGet(bsonSize(after));
+                updates++;
+            }
+            if (updates > 0) {
+                rewritten.addAndGet(bulk.execute().getModifiedCount());
+            }
+            if (documents.size() < batchSize || !pause()) {
+                return;
+            }
+        }
+    }
+
+    static long bsonSize(List<Document> elements) {
+        return new RawBsonDocument(new Document("v", elements), CODEC).getByteBuffer().remaining();
+    }
+
+    private boolean pause() {
+        try {
+            Thread.sleep(batchPauseMillis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.learn.learnloop.service;
+
+import com.learn.learnloop.model.QuizAttempt;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.util.CloseableIterator;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Server-side time limits: every open attempt with a deadline has a timeout on a hashed wheel
+ * timer that finalizes it when the deadline (plus a grace period) passes
+ */
+@Component
+public class QuizAttemptDeadlines {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${app.quiz.timer.tick-ms:1000}")
+    private long tickMillis;
+
+    @Value("${app.quiz.timer.wheel-size:512}")
+    private int wheelSize;
+
+    // Submissions arriving within this long after the deadline are still accepted as sent
+    @Value("${app.quiz.timer.grace-seconds:5}")
+    private int graceSeconds;
+
+    @Value("${app.quiz.timer.finalizer-threads:2}")
+    private int finalizerThreads;
+
+    private final Map<String, HashedWheelTimer.Timeout> timeouts = new ConcurrentHashMap<>();
+    private HashedWheelTimer timer;
+    private ExecutorService finalizers;
+    private volatile Consumer<String> expiryHandler = attemptId -> { };
+
+    @PostConstruct
+    public void start() {
+        finalizers = Executors.newFixedThreadPool(finalizerThreads, runnable -> {
+            Thread thread = new Thread(runnable, "attempt-finalizer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        timer = new HashedWheelTimer("attempt-deadlines", tickMillis, TimeUnit.MILLISECONDS, wheelSize, finalizers);
+    }
+
+    @PreDestroy
+    public void stop() {
+        timer.stop();
+        finalizers.shutdown();
+    }
+
+    /**
+     * Set the action run with the attempt ID when a deadline expires
+     */
+    public void onExpiry(Consumer<String> handler) {
+        this.expiryHandler = handler;
+    }
+
+    /**
+     * Arm (or re-arm) the timeout for an open attempt
+     */
+    public void arm(String attemptId, LocalDateTime deadlineAt) {
+        if (deadlineAt == null) {
+            return;
+        }
+        long delayMillis = Math.max(0, Duration.between(LocalDateTime.now(), deadlineAt).toMillis())
+                + TimeUnit.SECONDS.toMillis(graceSeconds);
+        HashedWheelTimer.Timeout timeout = timer.newTimeout(() -> expire(attemptId), delayMillis, TimeUnit.MILLISECONDS);
+        HashedWheelTimer.Timeout previous = timeouts.put(attemptId, timeout);
+        if (previous != null) {
+            previous.cancel();
+        }
+    }
+
+    /**
+     * Drop the timeout of an attempt that was submitted in time
+     */
+    public void disarm(String attemptId) {
+        HashedWheelTimer.Timeout timeout = timeouts.remove(attemptId);
+        if (timeout != null) {
+            timeout.cancel();
+        }
+    }
+
+    /**
+     * Whether a submission at the given time is past the attempt's deadline and grace period
+     */
+    public boolean isLate(QuizAttempt attempt, LocalDateTime now) {
+        return attempt.getDeadlineAt() != null && now.isAfter(attempt.getDeadlineAt().plusSeconds(graceSeconds));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rearmOnStartup() {
+        int armed = rearmOpenAttempts();
+        if (armed > 0) {
+            System.out.println("Re-armed deadlines for " + armed + " open quiz attempts");
+        }
+    }
+
+    /**
+     * Re-arm all open attempts with a deadline after a restart; ones already expired fire on the next tick
+     */
+    public int rearmOpenAttempts() {
+        Query query = new Query(Criteria.where("completed").is(false).and("deadlineAt").ne(null))
+                .with(Sort.by(Sort.Direction.ASC, "startedAt"))
+                .cursorBatchSize(1000);
+        query.fields().include("deadlineAt");
+
+        int armed = 0;
+        try (CloseableIterator<QuizAttempt> attempts = mongoTemplate.stream(query, QuizAttempt.class)) {
+            while (attempts.hasNext()) {
+                QuizAttempt attempt = attempts.next();
+                arm(attempt.getId(), attempt.getDeadlineAt());
+                armed++;
+            }
+        }
+        return armed;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("armedAttempts", timeouts.size());
+        stats.put("pendingTimeouts", timer.pendingTimeouts());
+        stats.put("expiredTimeouts", timer.expiredTimeouts());
+        return stats;
+    }
+
+    private void expire(String attemptId) {
+        timeouts.remove(attemptId);
+        try {
+            expiryHandler.accept(attemptId);
+        } catch (RuntimeException e) {
+            System.err.println("Failed to finalize expired attempt " + attemptId + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package com.learn.learnloop.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.learn.learnloop.dto.QuizAttemptDTO;
+import com.learn.learnloop.model.Quiz;
+import com.learn.learnloop.model.QuizAttempt;
+import com.learn.learnloop.repository.QuizRepository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.util.CloseableIterator;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streams a quiz's completed attempts as CSV or NDJSON straight from a Mongo cursor,
+ * holding only one attempt in memory at a time
+ */
+@Service
+public class QuizAttemptExportService {
+
+    public static final String FORMAT_CSV = "csv";
+    public static final String FORMAT_NDJSON = "ndjson";
+
+    // Documents fetched per cursor round-trip
+    private static final int CURSOR_BATCH_SIZE = 500;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private QuizRepository quizRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * Validate the requested format; null defaults to CSV
+     */
+    public static String normalizeFormat(String format) {
+        if (format == null || format.isBlank() || FORMAT_CSV.equalsIgnoreCase(format)) {
+            return FORMAT_CSV;
+        }
+        if (FORMAT_NDJSON.equalsIgnoreCase(format)) {
+            return FORMAT_NDJSON;
+        }
+        throw new IllegalArgumentException("Unsupported export format: " + format);
+    }
+
+    /**
+     * Load the quiz title and question texts once; run before the response is committed
+     * so a missing quiz is still reported as a normal error
+     */
+    public Quiz loadQuizHeader(String quizId) {
+        List<Quiz> quizzes = quizRepository.findTitlesAndQuestionTextsByIdIn(List.of(quizId));
+        if (quizzes.isEmpty()) {
+            throw new IllegalArgumentException("Quiz not found");
+        }
+        return quizzes.get(0);
+    }
+
+    /**
+     * Write every completed attempt of the quiz, oldest first
+     */
+    public long export(Quiz quiz, String format, OutputStream out) throws IOException {
+        List<Quiz.Question> questions = quiz.getQuestions() != null ? quiz.getQuestions() : new ArrayList<>();
+        Map<String, Integer> columnByQuestionId = new HashMap<>();
+        Map<String, String> questionTexts = new HashMap<>();
+        for (int i = 0; i < questions.size(); i++) {
+            columnByQuestionId.putIfAbsent(questions.get(i).getId(), i);
+            questionTexts.putIfAbsent(questions.get(i).getId(), questions.get(i).getText());
+        }
+
+        Query query = new Query(Criteria.where("quizId").is(quiz.getId()).and("completed").is(true))
+                .with(Sort.by(Sort.Direction.ASC, "completedAt", "id"))
+                .cursorBatchSize(CURSOR_BATCH_SIZE);
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        boolean csv = FORMAT_CSV.equals(format);
+        if (csv) {
+            writeCsvHeader(writer, questions);
+        }
+
+        long rows = 0;
+        try (CloseableIterator<QuizAttempt> attempts = mongoTemplate.stream(query, QuizAttempt.class)) {
+            while (attempts.hasNext()) {
+                QuizAttempt attempt = attempts.next();
+                if (csv) {
+                    writeCsvRow(writer, attempt, columnByQuestionId, questions.size());
+                } else {
+                    writeNdjsonRow(writer, attempt, quiz.getTitle(), questionTexts);
+                }
+                rows++;
+            }
+        }
+        writer.flush();
+        return rows;
+    }
+
+    private static void writeCsvHeader(Writer writer, List<Quiz.Question> questions) throws IOException {
+        writer.write("attemptId,userId,startedAt,completedAt,score,passed,timeSpent,correctAnswers");
+        for (Quiz.Question question : questions) {
+            writer.write(',');
+            writeCsvField(writer, question.getText());
+        }
+        writer.write("\r\n");
+    }
+
+    private static void writeCsvRow(Writer writer, QuizAttempt attempt, Map<String, Integer> columnByQuestionId,
+                                    int questionCount) throws IOException {
+        // Selected options per question column, e.g. "1;3", with a trailing "*" when correct
+        String[] answers = new String[questionCount];
+        int correct = 0;
+        if (attempt.getResponses() != null) {
+            for (QuizAttempt.QuestionResponse response : attempt.getResponses()) {
+                if (response.isCorrect()) correct++;
+                Integer column = columnByQuestionId.get(response.getQuestionId());
+                if (column != null) {
+                    String selected = response.getSelectedOptions() != null
+                            ? String.join(";", response.getSelectedOptions()) : "";
+                    answers[column] = response.isCorrect() ? selected + "*" : selected;
+                }
+            }
+        }
+
+        writeCsvField(writer, attempt.getId());
+        writer.write(',');
+        writeCsvField(writer, attempt.getUserId());
+        writer.write(',');
+        writer.write(attempt.getStartedAt() != null ? attempt.getStartedAt().toString() : "");
+        writer.write(',');
+        writer.write(attempt.getCompletedAt() != null ? attempt.getCompletedAt().toString() : "");
+        writer.write(',');
+        writer.write(Integer.toString(attempt.getScore()));
+        writer.write(',');
+        writer.write(Boolean.toString(attempt.isPassed()));
+        writer.write(',');
+        writer.write(Integer.toString(attempt.getTimeSpent()));
+        writer.write(',');
+        writer.write(Integer.toString(correct));
+        for (String answer : answers) {
+            writer.write(',');
+            writeCsvField(writer, answer);
+        }
+        writer.write("\r\n");
+    }
+
+    private void writeNdjsonRow(Writer writer, QuizAttempt attempt, String quizTitle,
+                                Map<String, String> questionTexts) throws IOException {
+        QuizAttemptDTO dto = QuizAttemptDTO.fromAttempt(attempt);
+        dto.setQuizTitle(quizTitle);
+        for (QuizAttemptDTO.ResponseDTO response : dto.getResponses()) {
+            response.setQuestionText(questionTexts.getOrDefault(response.getQuestionId(), ""));
+        }
+        writer.write(objectMapper.writeValueAsString(dto));
+        writer.write('\n');
+    }
+
+    /**
+     * RFC 4180 quoting: only fields containing a separator, quote or line break are quoted
+     */
+    private static void writeCsvField(Writer writer, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
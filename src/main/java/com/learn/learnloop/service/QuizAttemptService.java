@@ -1,21 +1,38 @@
 package com.learn.learnloop.service;
 
+import com.learn.learnloop.dto.AttemptListParams;
+import com.learn.learnloop.dto.PageResponse;
 import com.learn.learnloop.dto.QuizAttemptDTO;
 import com.learn.learnloop.model.Quiz;
 import com.learn.learnloop.model.QuizAttempt;
+import com.learn.learnloop.model.QuizSnapshot;
 import com.learn.learnloop.repository.QuizAttemptRepository;
 import com.learn.learnloop.repository.QuizRepository;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PostConstruct;
+
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.function.Function;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 @Service
@@ -28,7 +45,36 @@ public class QuizAttemptService {
     private QuizRepository quizRepository;
     
     @Autowired
-    private QuizService quizService;
+    private MongoTemplate mongoTemplate;
+    
+    @Autowired
+    private QuizStatisticsAggregator statisticsAggregator;
+    
+    @Autowired
+    private LeaderboardService leaderboardService;
+    
+    @Autowired
+    private QuizAttemptDeadlines deadlines;
+    
+    @Autowired
+    private ResponseAutosaveBuffer autosaveBuffer;
+    
+    @Autowired
+    private AttemptBucketStore bucketStore;
+    
+    @Autowired
+    private QuizSnapshotService snapshotService;
+    
+    @Value("${app.quiz.answer-key-cache.max-entries:1000}")
+    private int answerKeyCacheMaxEntries;
+    
+    // Compiled answer keys of legacy attempts (no quizVersion) by quiz ID, reused while the quiz's updatedAt is unchanged
+    private final Map<String, AnswerKey> answerKeys = new ConcurrentHashMap<>();
+    
+    @PostConstruct
+    public void registerDeadlineHandler() {
+        deadlines.onExpiry(this::finalizeExpiredAttempt);
+    }
     
     /**
      * Start a new quiz attempt
@@ -48,97 +94,213 @@ public class QuizAttemptService {
         attempt.setUserId(userId);
         attempt.setStartedAt(LocalDateTime.now());
         attempt.setCompleted(false);
+        attempt.setCategory(quiz.getCategory());
+        
+        // Pin the attempt to the published content it is shown, so later edits never rescore it
+        snapshotService.ensureSnapshot(quiz);
+        attempt.setQuizVersion(quiz.getContentVersion());
+        if (quiz.getTimeLimit() > 0) {
+            attempt.setDeadlineAt(attempt.getStartedAt().plusMinutes(quiz.getTimeLimit()));
+        }
+        
+        QuizAttempt savedAttempt = attemptRepository.save(attempt);
+        deadlines.arm(savedAttempt.getId(), savedAttempt.getDeadlineAt());
+        return savedAttempt;
+    }
+    
+    /**
+     * Autosave the answer to one question of an in-progress attempt
+     */
+    public void saveResponse(String attemptId, String userId, String questionId, List<String> selectedOptions) {
+        // Point lookup of the fields needed to validate the edit; the write itself is coalesced
+        Query query = Query.query(Criteria.where("id").is(attemptId));
+        query.fields().include("userId", "quizId", "quizVersion", "completed", "deadlineAt");
+        QuizAttempt attempt = mongoTemplate.findOne(query, QuizAttempt.class);
+        if (attempt == null) {
+            throw new IllegalArgumentException("Attempt not found");
+        }
+        if (!attempt.getUserId().equals(userId)) {
+            throw new SecurityException("You can only answer your own attempts");
+        }
+        if (attempt.isCompleted()) {
+            throw new IllegalArgumentException("This attempt has already been completed");
+        }
+        if (deadlines.isLate(attempt, LocalDateTime.now())) {
+            throw new IllegalArgumentException("Time limit exceeded");
+        }
+        
+        AnswerKey answerKey = attempt.getQuizVersion() == null ? answerKeys.get(attempt.getQuizId()) : null;
+        if (answerKey == null) {
+            answerKey = answerKeyFor(attempt);
+        }
+        if (answerKey.indexOf(questionId) < 0) {
+            throw new IllegalArgumentException("Question not found in this quiz");
+        }
         
-        return attemptRepository.save(attempt);
+        autosaveBuffer.save(attemptId, userId, questionId, selectedOptions);
     }
     
     /**
-     * Submit answers for a quiz attempt
+     * Submit answers for a quiz attempt; responses may be empty when all answers were autosaved.
+     * A retry carrying the idempotency key of the submission that completed the attempt gets
+     * the stored result back instead of being scored again.
      */
-    public QuizAttempt submitQuizAttempt(String attemptId, List<QuizAttempt.QuestionResponse> responses) {
+    public QuizAttempt submitQuizAttempt(String attemptId, String userId,
+                                         List<QuizAttempt.QuestionResponse> responses, String idempotencyKey) {
+        // Autosaved answers still in the buffer must be stored before the attempt is read
+        autosaveBuffer.flushAttempt(attemptId);
+        
         // Get attempt
         QuizAttempt attempt = attemptRepository.findById(attemptId)
                 .orElseThrow(() -> new IllegalArgumentException("Attempt not found"));
         
+        // Verify this attempt belongs to the current user
+        if (!attempt.getUserId().equals(userId)) {
+            throw new SecurityException("You can only submit your own attempts");
+        }
+        
         // Check if already completed
         if (attempt.isCompleted()) {
-            throw new IllegalArgumentException("This attempt has already been completed");
+            return completedResult(attempt, idempotencyKey);
         }
         
-        // Get quiz
-        Quiz quiz = quizRepository.findById(attempt.getQuizId())
-                .orElseThrow(() -> new IllegalArgumentException("Quiz not found"));
+        // Past the deadline only the responses saved before it count; otherwise the
+        // submitted answers override the autosaved ones question by question
+        LocalDateTime completionTime = LocalDateTime.now();
+        if (deadlines.isLate(attempt, completionTime)) {
+            responses = attempt.getResponses();
+        } else {
+            responses = mergeResponses(attempt.getResponses(), responses);
+        }
+        
+        QuizAttempt completedAttempt = completeAttempt(attempt, responses, completionTime, idempotencyKey);
+        if (completedAttempt == null) {
+            // Lost the race to a concurrent submit or the deadline timer
+            QuizAttempt winner = attemptRepository.findById(attemptId)
+                    .orElseThrow(() -> new IllegalArgumentException("Attempt not found"));
+            return completedResult(winner, idempotencyKey);
+        }
+        return completedAttempt;
+    }
+    
+    /**
+     * The stored result for a retry of the submission that completed the attempt; any other
+     * submission of a completed attempt is a conflict
+     */
+    private static QuizAttempt completedResult(QuizAttempt attempt, String idempotencyKey) {
+        if (idempotencyKey != null && idempotencyKey.equals(attempt.getSubmissionKey())) {
+            return attempt;
+        }
+        throw new IllegalStateException("This attempt has already been completed");
+    }
+    
+    /**
+     * Auto-submit an attempt whose time limit expired, scoring the responses saved so far
+     */
+    public void finalizeExpiredAttempt(String attemptId) {
+        autosaveBuffer.flushAttempt(attemptId);
+        QuizAttempt attempt = attemptRepository.findById(attemptId).orElse(null);
+        if (attempt == null || attempt.isCompleted()) {
+            return;
+        }
+        completeAttempt(attempt, attempt.getResponses(), LocalDateTime.now(), null);
+    }
+    
+    private static List<QuizAttempt.QuestionResponse> mergeResponses(List<QuizAttempt.QuestionResponse> stored,
+                                                                     List<QuizAttempt.QuestionResponse> submitted) {
+        Map<String, QuizAttempt.QuestionResponse> merged = new LinkedHashMap<>();
+        if (stored != null) {
+            for (QuizAttempt.QuestionResponse response : stored) {
+                merged.put(response.getQuestionId(), response);
+            }
+        }
+        if (submitted != null) {
+            for (QuizAttempt.QuestionResponse response : submitted) {
+                merged.put(response.getQuestionId(), response);
+            }
+        }
+        return new ArrayList<>(merged.values());
+    }
+    
+    /**
+     * Score and complete an open attempt; returns null if it was completed concurrently
+     * (e.g. submitted while its deadline fired)
+     */
+    private QuizAttempt completeAttempt(QuizAttempt attempt, List<QuizAttempt.QuestionResponse> responses,
+                                        LocalDateTime completionTime, String submissionKey) {
+        if (responses == null) {
+            responses = new ArrayList<>();
+        }
+        
+        // Get the compiled answer key for the version of the quiz the attempt was started on
+        AnswerKey answerKey = answerKeyFor(attempt);
         
         // Calculate time spent
-        LocalDateTime completionTime = LocalDateTime.now();
         int timeSpent = (int) Duration.between(attempt.getStartedAt(), completionTime).getSeconds();
         
         // Check if time limit exceeded (if there is one)
-        if (quiz.getTimeLimit() > 0) {
-            int timeLimit = quiz.getTimeLimit() * 60; // convert minutes to seconds
+        if (answerKey.getTimeLimit() > 0) {
+            int timeLimit = answerKey.getTimeLimit() * 60; // convert minutes to seconds
             if (timeSpent > timeLimit) {
                 timeSpent = timeLimit;
             }
         }
         
-        // Create map of quiz questions for easy lookup
-        Map<String, Quiz.Question> questionsMap = quiz.getQuestions().stream()
-                .collect(Collectors.toMap(Quiz.Question::getId, Function.identity()));
-        
         // Score each response
         int correctCount = 0;
-        List<QuizAttempt.QuestionResponse> scoredResponses = new ArrayList<>();
+        List<QuizAttempt.QuestionResponse> scoredResponses = new ArrayList<>(responses.size());
         
         for (QuizAttempt.QuestionResponse response : responses) {
-            QuizAttempt.QuestionResponse scoredResponse = new QuizAttempt.QuestionResponse();
-            scoredResponse.setQuestionId(response.getQuestionId());
-            scoredResponse.setSelectedOptions(response.getSelectedOptions());
-            
-            // Get question
-            Quiz.Question question = questionsMap.get(response.getQuestionId());
-            if (question == null) {
+            int questionIndex = answerKey.indexOf(response.getQuestionId());
+            if (questionIndex < 0) {
                 // Skip responses for questions that don't exist
                 continue;
             }
             
-            // Score based on question type
-            if ("MULTIPLE_CHOICE".equals(question.getType())) {
-                // Single choice - must match exactly
-                boolean isCorrect = response.getSelectedOptions().size() == 1 && 
-                                   question.getCorrectOptions().containsAll(response.getSelectedOptions());
-                scoredResponse.setCorrect(isCorrect);
-                if (isCorrect) correctCount++;
-            } else {
-                // Multiple choice - must select all correct options and no incorrect ones
-                boolean isCorrect = response.getSelectedOptions().size() == question.getCorrectOptions().size() &&
-                                   question.getCorrectOptions().containsAll(response.getSelectedOptions());
-                scoredResponse.setCorrect(isCorrect);
-                if (isCorrect) correctCount++;
-            }
+            boolean isCorrect = answerKey.isCorrect(questionIndex, response.getSelectedOptions());
+            response.setCorrect(isCorrect);
+            if (isCorrect) correctCount++;
             
-            scoredResponses.add(scoredResponse);
+            scoredResponses.add(response);
         }
         
         // Calculate final score
-        int totalQuestions = quiz.getQuestions().size();
+        int totalQuestions = answerKey.getQuestionCount();
         int scorePercentage = totalQuestions > 0 ? (correctCount * 100) / totalQuestions : 0;
-        boolean passed = scorePercentage >= quiz.getPassingScore();
+        boolean passed = scorePercentage >= answerKey.getPassingScore();
         
-        // Update attempt
-        attempt.setResponses(scoredResponses);
-        attempt.setCompletedAt(completionTime);
-        attempt.setCompleted(true);
-        attempt.setScore(scorePercentage);
-        attempt.setPassed(passed);
-        attempt.setTimeSpent(timeSpent);
+        // One conditional write: only the first completion matches completed=false, so a
+        // concurrent submit or expiry is never scored or counted twice
+        Update update = new Update()
+                .set("responses", scoredResponses)
+                .set("completedAt", completionTime)
+                .set("completed", true)
+                .set("score", scorePercentage)
+                .set("passed", passed)
+                .set("timeSpent", timeSpent)
+                .set("submissionKey", submissionKey);
+        QuizAttempt completedAttempt = mongoTemplate.findAndModify(
+                Query.query(Criteria.where("id").is(attempt.getId()).and("completed").is(false)),
+                update, FindAndModifyOptions.options().returnNew(true), QuizAttempt.class);
+        if (completedAttempt == null) {
+            return null;
+        }
+        deadlines.disarm(attempt.getId());
         
-        // Save attempt
-        QuizAttempt savedAttempt = attemptRepository.save(attempt);
+        // Update quiz statistics (accumulated in memory, flushed to the quiz document periodically)
+        statisticsAggregator.record(answerKey.getQuizId(), scorePercentage, passed);
         
-        // Update quiz statistics
-        quizService.updateQuizStatistics(quiz.getId(), scorePercentage, passed);
+        // Update the in-memory leaderboards
+        leaderboardService.record(completedAttempt);
         
-        return savedAttempt;
+        // Dual write into the bucketed layout when it is enabled
+        try {
+            bucketStore.append(completedAttempt);
+        } catch (RuntimeException e) {
+            System.err.println("Failed to append attempt " + completedAttempt.getId() + " to its bucket: " + e.getMessage());
+        }
+        
+        return completedAttempt;
     }
     
     /**
@@ -153,6 +315,9 @@ public class QuizAttemptService {
      */
     public List<QuizAttempt> getAttemptsByUser(String userId) {
         // Return completed attempts first, sorted by completion date (newest first)
+        if (bucketStore.isReadable()) {
+            return bucketStore.findCompletedByUser(userId);
+        }
         return attemptRepository.findByUserIdAndCompletedOrderByCompletedAtDesc(userId, true);
     }
     
@@ -167,30 +332,200 @@ public class QuizAttemptService {
      * Get all attempts by user for a specific quiz
      */
     public List<QuizAttempt> getAttemptsByUserAndQuiz(String userId, String quizId) {
+        if (bucketStore.isReadable()) {
+            // Open attempts only live in quiz_attempts
+            List<QuizAttempt> attempts = new ArrayList<>(
+                    attemptRepository.findByUserIdAndQuizIdAndCompleted(userId, quizId, false));
+            attempts.addAll(bucketStore.findCompletedByUserAndQuiz(userId, quizId));
+            return attempts;
+        }
         return attemptRepository.findByUserIdAndQuizId(userId, quizId);
     }
     
+    /**
+     * Get one page of a user's completed attempts, optionally for a single quiz
+     */
+    public PageResponse<QuizAttempt> getAttemptPageByUser(String userId, String quizId, AttemptListParams params) {
+        Criteria scope = Criteria.where("userId").is(userId);
+        if (quizId != null) {
+            scope.and("quizId").is(quizId);
+        }
+        return findAttemptPage(scope, params);
+    }
+    
+    /**
+     * Get one page of a quiz's completed attempts, optionally for a single user (admin view)
+     */
+    public PageResponse<QuizAttempt> getAttemptPageByQuiz(String quizId, AttemptListParams params) {
+        Criteria scope = Criteria.where("quizId").is(quizId);
+        if (params.getUserId() != null && !params.getUserId().isBlank()) {
+            scope.and("userId").is(params.getUserId());
+        }
+        return findAttemptPage(scope, params);
+    }
+    
     /**
      * Enrich a quiz attempt DTO with question text
      */
     public QuizAttemptDTO enrichQuizAttemptDTO(QuizAttempt attempt) {
-        QuizAttemptDTO dto = QuizAttemptDTO.fromAttempt(attempt);
+        return enrichQuizAttemptDTOs(List.of(attempt)).get(0);
+    }
+    
+    /**
+     * Convert attempts to DTOs with quiz titles and question texts, loading every
+     * referenced quiz in a single projected query
+     */
+    public List<QuizAttemptDTO> enrichQuizAttemptDTOs(List<QuizAttempt> attempts) {
+        if (attempts.isEmpty()) {
+            return new ArrayList<>();
+        }
         
-        // Get quiz to fill in additional fields
-        Quiz quiz = quizRepository.findById(attempt.getQuizId()).orElse(null);
-        if (quiz != null) {
-            dto.setQuizTitle(quiz.getTitle());
-            
-            // Create question map for easy lookup
-            Map<String, String> questionTextMap = quiz.getQuestions().stream()
-                .collect(Collectors.toMap(Quiz.Question::getId, Quiz.Question::getText));
-            
-            // Fill in question text for each response
-            for (QuizAttemptDTO.ResponseDTO response : dto.getResponses()) {
-                response.setQuestionText(questionTextMap.getOrDefault(response.getQuestionId(), ""));
+        Set<String> quizIds = new HashSet<>();
+        for (QuizAttempt attempt : attempts) {
+            if (attempt.getQuizId() != null) {
+                quizIds.add(attempt.getQuizId());
+            }
+        }
+        
+        // Versioned attempts take question texts from their (cached) snapshot; only legacy
+        // attempts need the current questions of their quiz
+        Set<String> snapshotKeys = new HashSet<>();
+        boolean legacyAttempts = false;
+        for (QuizAttempt attempt : attempts) {
+            if (attempt.getQuizVersion() != null) {
+                snapshotKeys.add(QuizSnapshot.key(attempt.getQuizId(), attempt.getQuizVersion()));
+            } else {
+                legacyAttempts = true;
             }
         }
+        Map<String, QuizSnapshotService.CachedSnapshot> snapshots = snapshotService.getAll(snapshotKeys);
+        
+        Map<String, Quiz> quizzes = new HashMap<>();
+        for (Quiz quiz : legacyAttempts ? quizRepository.findTitlesAndQuestionTextsByIdIn(quizIds)
+                                        : quizRepository.findTitlesAndHistogramsByIdIn(quizIds)) {
+            quizzes.put(quiz.getId(), quiz);
+        }
         
-        return dto;
+        // Question text maps are built once per quiz and shared by all of its attempts
+        Map<String, Map<String, String>> questionTextMaps = new HashMap<>();
+        
+        List<QuizAttemptDTO> dtos = new ArrayList<>(attempts.size());
+        for (QuizAttempt attempt : attempts) {
+            QuizAttemptDTO dto = QuizAttemptDTO.fromAttempt(attempt);
+            Quiz quiz = quizzes.get(attempt.getQuizId());
+            if (quiz != null) {
+                QuizSnapshotService.CachedSnapshot snapshot = attempt.getQuizVersion() != null
+                        ? snapshots.get(QuizSnapshot.key(attempt.getQuizId(), attempt.getQuizVersion())) : null;
+                dto.setQuizTitle(snapshot != null ? snapshot.getSnapshot().getTitle() : quiz.getTitle());
+                if (attempt.isCompleted()) {
+                    dto.setPercentile(ScoreHistogram.percentile(quiz.getScoreHistogram(),
+                        statisticsAggregator.pendingHistogram(quiz.getId()), attempt.getScore()));
+                }
+                
+                Map<String, String> questionTextMap = snapshot != null ? snapshot.getQuestionTexts()
+                        : questionTextMaps.computeIfAbsent(quiz.getId(), id -> questionTexts(quiz));
+                if (dto.getResponses() != null) {
+                    for (QuizAttemptDTO.ResponseDTO response : dto.getResponses()) {
+                        response.setQuestionText(questionTextMap.getOrDefault(response.getQuestionId(), ""));
+                    }
+                }
+            }
+            dtos.add(dto);
+        }
+        return dtos;
+    }
+    
+    private static Map<String, String> questionTexts(Quiz quiz) {
+        Map<String, String> texts = new HashMap<>();
+        if (quiz.getQuestions() != null) {
+            for (Quiz.Question question : quiz.getQuestions()) {
+                texts.putIfAbsent(question.getId(), question.getText());
+            }
+        }
+        return texts;
+    }
+    
+    /**
+     * Keyset query backed by the (scope, completed, completedAt, _id) indexes declared on QuizAttempt
+     */
+    private PageResponse<QuizAttempt> findAttemptPage(Criteria scope, AttemptListParams params) {
+        int pageSize = KeysetCursor.pageSize(params.getLimit());
+        Sort.Direction direction = KeysetCursor.direction(params.getOrder());
+        KeysetCursor after = KeysetCursor.decode(params.getCursor());
+        
+        if (params.getMinScore() != null && params.getMaxScore() != null && params.getMinScore() > params.getMaxScore()) {
+            throw new IllegalArgumentException("minScore must not exceed maxScore");
+        }
+        if (params.getFrom() != null && params.getTo() != null && !params.getFrom().isBefore(params.getTo())) {
+            throw new IllegalArgumentException("from must be before to");
+        }
+        
+        List<Criteria> filters = new ArrayList<>();
+        filters.add(scope);
+        filters.add(Criteria.where("completed").is(true));
+        if (params.getFrom() != null || params.getTo() != null) {
+            Criteria completedAt = Criteria.where("completedAt");
+            if (params.getFrom() != null) completedAt.gte(params.getFrom());
+            if (params.getTo() != null) completedAt.lt(params.getTo());
+            filters.add(completedAt);
+        }
+        if (params.getMinScore() != null || params.getMaxScore() != null) {
+            Criteria score = Criteria.where("score");
+            if (params.getMinScore() != null) score.gte(params.getMinScore());
+            if (params.getMaxScore() != null) score.lte(params.getMaxScore());
+            filters.add(score);
+        }
+        if (params.getPassed() != null) {
+            filters.add(Criteria.where("passed").is(params.getPassed()));
+        }
+        if (after != null) {
+            filters.add(after.after("completedAt", direction));
+        }
+        
+        Query query = new Query(new Criteria().andOperator(filters));
+        query.with(Sort.by(direction, "completedAt", "id")).limit(pageSize + 1);
+        
+        List<QuizAttempt> attempts = mongoTemplate.find(query, QuizAttempt.class);
+        return KeysetCursor.page(attempts, pageSize, attempt -> new KeysetCursor(attempt.getCompletedAt(), attempt.getId()));
+    }
+    
+    /**
+     * Answer key of the snapshot an attempt was started against; legacy attempts are scored
+     * against the current quiz
+     */
+    private AnswerKey answerKeyFor(QuizAttempt attempt) {
+        if (attempt.getQuizVersion() != null) {
+            return snapshotService.get(attempt.getQuizId(), attempt.getQuizVersion()).getAnswerKey();
+        }
+        return getAnswerKey(attempt.getQuizId());
+    }
+    
+    /**
+     * Get the compiled answer key for a quiz, recompiling only when the quiz was edited
+     */
+    private AnswerKey getAnswerKey(String quizId) {
+        Quiz version = quizRepository.findVersionById(quizId)
+                .orElseThrow(() -> new IllegalArgumentException("Quiz not found"));
+        
+        AnswerKey answerKey = answerKeys.get(quizId);
+        if (answerKey != null && answerKey.isVersion(version.getUpdatedAt())) {
+            return answerKey;
+        }
+        
+        Quiz quiz = quizRepository.findById(quizId)
+                .orElseThrow(() -> new IllegalArgumentException("Quiz not found"));
+        answerKey = AnswerKey.compile(quiz);
+        
+        // Keep the cache bounded by dropping whichever entry the iterator yields first; the map
+        // has no access order, so this is an arbitrary key, not the least recently used one.
+        // An evicted key is simply compiled again on its next use.
+        if (answerKeys.size() >= answerKeyCacheMaxEntries && !answerKeys.containsKey(quizId)) {
+            Iterator<String> keys = answerKeys.keySet().iterator();
+            if (keys.hasNext()) {
+                answerKeys.remove(keys.next());
+            }
+        }
+        answerKeys.put(quizId, answerKey);
+        return answerKey;
     }
 }
\ No newline at end of file
@@ -0,0 +1,165 @@
+package com.learn.learnloop.service;
+
+import com.learn.learnloop.model.Quiz;
+import com.learn.learnloop.model.QuizAttempt;
+import com.learn.learnloop.model.QuizDeletionJob;
+import com.learn.learnloop.model.QuizSnapshot;
+import com.learn.learnloop.repository.QuizDeletionJobRepository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Removes the attempts of deleted quizzes in bounded batches on a background thread, recording
+ * progress in quiz_deletion_jobs
+ */
+@Service
+public class QuizDeletionService {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private QuizDeletionJobRepository jobRepository;
+
+    @Autowired
+    private AttemptBucketStore bucketStore;
+
+    @Value("${app.quiz.deletion.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${app.quiz.deletion.batch-pause-ms:50}")
+    private long batchPauseMillis;
+
+    // One job at a time keeps the delete load on Mongo bounded
+    private ExecutorService worker;
+
+    @PostConstruct
+    public void start() {
+        worker = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "quiz-deletion");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void stop() {
+        // Interrupted jobs stay RUNNING and are resumed on the next start
+        worker.shutdownNow();
+    }
+
+    /**
+     * Record a deletion job for the quiz and start removing its attempts
+     */
+    public QuizDeletionJob schedule(Quiz quiz, String adminId) {
+        QuizDeletionJob job = new QuizDeletionJob();
+        job.setQuizId(quiz.getId());
+        job.setQuizTitle(quiz.getTitle());
+        job.setRequestedBy(adminId);
+        job.setStatus(QuizDeletionJob.PENDING);
+        job.setCreatedAt(LocalDateTime.now());
+        job.setUpdatedAt(job.getCreatedAt());
+        QuizDeletionJob savedJob = jobRepository.save(job);
+
+        worker.execute(() -> run(savedJob.getId()));
+        return savedJob;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeUnfinishedJobs() {
+        List<QuizDeletionJob> unfinished = jobRepository.findByStatusIn(
+                List.of(QuizDeletionJob.PENDING, QuizDeletionJob.RUNNING));
+        for (QuizDeletionJob job : unfinished) {
+            worker.execute(() -> run(job.getId()));
+        }
+        if (!unfinished.isEmpty()) {
+            System.out.println("Resuming " + unfinished.size() + " quiz deletion jobs");
+        }
+    }
+
+    public Optional<QuizDeletionJob> getJob(String jobId) {
+        return jobRepository.findById(jobId);
+    }
+
+    public List<QuizDeletionJob> getRecentJobs() {
+        return jobRepository.findTop50ByOrderByCreatedAtDesc();
+    }
+
+    private void run(String jobId) {
+        QuizDeletionJob job = jobRepository.findById(jobId).orElse(null);
+        if (job == null || QuizDeletionJob.COMPLETED.equals(job.getStatus())) {
+            return;
+        }
+        setStatus(jobId, QuizDeletionJob.RUNNING, null);
+        try {
+            // Idempotent: the quiz document normally is already gone when the job starts
+            mongoTemplate.remove(Query.query(Criteria.where("id").is(job.getQuizId())), Quiz.class);
+
+            while (!Thread.currentThread().isInterrupted()) {
+                long deleted = deleteBatch(job.getQuizId());
+                if (deleted == 0) {
+                    break;
+                }
+                mongoTemplate.updateFirst(Query.query(Criteria.where("id").is(jobId)),
+                        new Update().inc("attemptsDeleted", deleted).set("updatedAt", LocalDateTime.now()),
+                        QuizDeletionJob.class);
+                Thread.sleep(batchPauseMillis);
+            }
+            if (!Thread.currentThread().isInterrupted()) {
+                // Bucketed copies of those attempts, so they leave bucketed history too
+                bucketStore.removeQuiz(job.getQuizId());
+                // Snapshots are only referenced by the attempts removed above
+                mongoTemplate.remove(Query.query(Criteria.where("quizId").is(job.getQuizId())), QuizSnapshot.class);
+                mongoTemplate.updateFirst(Query.query(Criteria.where("id").is(jobId)),
+                        new Update().set("status", QuizDeletionJob.COMPLETED)
+                                .set("completedAt", LocalDateTime.now())
+                                .set("updatedAt", LocalDateTime.now()),
+                        QuizDeletionJob.class);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            System.err.println("Quiz deletion job " + jobId + " failed: " + e.getMessage());
+            setStatus(jobId, QuizDeletionJob.FAILED, e.getMessage());
+        }
+    }
+
+    /**
+     * Delete up to one batch of the quiz's attempts with a server-side delete by ID
+     */
+    private long deleteBatch(String quizId) {
+        Query batch = Query.query(Criteria.where("quizId").is(quizId)).limit(batchSize);
+        batch.fields().include("id");
+        List<Object> ids = new ArrayList<>(batchSize);
+        for (QuizAttempt attempt : mongoTemplate.find(batch, QuizAttempt.class)) {
+            ids.add(attempt.getId());
+        }
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        return mongoTemplate.remove(Query.query(Criteria.where("id").in(ids)), QuizAttempt.class).getDeletedCount();
+    }
+
+    private void setStatus(String jobId, String status, String error) {
+        mongoTemplate.updateFirst(Query.query(Criteria.where("id").is(jobId)),
+                new Update().set("status", status).set("error", error).set("updatedAt", LocalDateTime.now()),
+                QuizDeletionJob.class);
+    }
+}
@@ -0,0 +1,113 @@
+package com.learn.learnloop.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * LRU cache of pre-encoded UTF-8 JSON for quiz detail views, keyed by (quizId, view) and
+ * tagged with the version (ETag) it was encoded from
+ */
+@Component
+public class QuizJsonCache {
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${app.quiz.json-cache.max-entries:2000}")
+    private int maxEntries;
+
+    // Access-ordered so the least recently served view is evicted first
+    private final Map<String, EncodedView> entries = new LinkedHashMap<String, EncodedView>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, EncodedView> eldest) {
+            return size() > maxEntries;
+        }
+    };
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * Get the cached bytes for a view if they were encoded from the given version
+     */
+    public byte[] get(String quizId, boolean includeAnswers, String version) {
+        EncodedView entry;
+        synchronized (entries) {
+            entry = entries.get(key(quizId, includeAnswers));
+        }
+        if (entry != null && entry.version.equals(version)) {
+            hits.incrementAndGet();
+            return entry.json;
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Encode a view once and keep it for later requests on the same version
+     */
+    public byte[] put(String quizId, boolean includeAnswers, String version, Object view) {
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(view);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to encode quiz " + quizId, e);
+        }
+        synchronized (entries) {
+            entries.put(key(quizId, includeAnswers), new EncodedView(version, json));
+        }
+        return json;
+    }
+
+    /**
+     * Drop both views of a quiz after it was edited, (un)published or deleted
+     */
+    public void evict(String quizId) {
+        synchronized (entries) {
+            if (entries.remove(key(quizId, false)) != null) evictions.incrementAndGet();
+            if (entries.remove(key(quizId, true)) != null) evictions.incrementAndGet();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        int size;
+        long bytes = 0;
+        synchronized (entries) {
+            size = entries.size();
+            for (EncodedView entry : entries.values()) {
+                bytes += entry.json.length;
+            }
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("hits", hits.get());
+        stats.put("misses", misses.get());
+        stats.put("evictions", evictions.get());
+        stats.put("cachedEntries", size);
+        stats.put("cachedBytes", bytes);
+        stats.put("maxEntries", maxEntries);
+        return stats;
+    }
+
+    private static String key(String quizId, boolean includeAnswers) {
+        return quizId + (includeAnswers ? ":admin" : ":student");
+    }
+
+    private static final class EncodedView {
+        private final String version;
+        private final byte[] json;
+
+        private EncodedView(String version, byte[] json) {
+            this.version = version;
+            this.json = json;
+        }
+    }
+}
@@ -1,20 +1,51 @@
 package com.learn.learnloop.service;
 
+import com.learn.learnloop.config.OptionMaskConverters;
+import com.learn.learnloop.dto.PageResponse;
+import com.learn.learnloop.dto.QuestionOrderUpdate;
+import com.learn.learnloop.dto.QuestionUpdate;
 import com.learn.learnloop.dto.QuizDTO;
+import com.learn.learnloop.dto.QuizMetadataUpdate;
+import com.learn.learnloop.dto.QuizSummaryDTO;
 import com.learn.learnloop.model.Quiz;
-import com.learn.learnloop.model.QuizAttempt;
-import com.learn.learnloop.model.User;
-import com.learn.learnloop.repository.QuizAttemptRepository;
+import com.learn.learnloop.model.QuizDeletionJob;
 import com.learn.learnloop.repository.QuizRepository;
-import com.learn.learnloop.repository.UserRepository;
+import com.learn.learnloop.security.AuthenticatedUser;
 
+import org.bson.Document;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.ArithmeticOperators;
+import org.springframework.data.mongodb.core.aggregation.SetOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
 import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
 import java.util.stream.Collectors;
 
 @Service
@@ -24,30 +55,58 @@ public class QuizService {
     private QuizRepository quizRepository;
     
     @Autowired
-    private QuizAttemptRepository quizAttemptRepository;
+    private MongoTemplate mongoTemplate;
     
     @Autowired
-    private UserRepository userRepository;
+    private QuizJsonCache quizJsonCache;
+    
+    @Autowired
+    private QuizDeletionService quizDeletionService;
+    
+    @Autowired
+    private LeaderboardService leaderboardService;
+    
+    @Autowired
+    private QuizSnapshotService snapshotService;
+    
+    // Published catalogs larger than this are served straight from Mongo
+    @Value("${app.quiz.catalog-cache.max-entries:1000}")
+    private int catalogCacheMaxEntries;
+    
+    // Answer-stripped published catalog views; only valid while their generation is current
+    private volatile CatalogSnapshot<QuizDTO> publishedCatalog;
+    private volatile CatalogSnapshot<QuizSummaryDTO> publishedSummaries;
+    private final AtomicLong catalogGeneration = new AtomicLong();
+    private final AtomicLong catalogStatsRevision = new AtomicLong();
+    // Distinguishes catalog ETags issued before a restart, when the counters start over
+    private final String catalogEpoch = Long.toHexString(System.currentTimeMillis());
+    private final Object catalogRebuildLock = new Object();
+    
+    private final AtomicLong catalogHits = new AtomicLong();
+    private final AtomicLong catalogMisses = new AtomicLong();
+    private final AtomicLong catalogRebuilds = new AtomicLong();
+    private final AtomicLong catalogInvalidations = new AtomicLong();
     
     /**
      * Create a new quiz
      */
-    public Quiz createQuiz(Quiz quiz, String adminId) {
+    public Quiz createQuiz(Quiz quiz, AuthenticatedUser admin) {
         // Validate if user is an admin
-        User user = userRepository.findById(adminId).orElse(null);
-        if (user == null || !"ADMIN".equals(user.getRole())) {
+        if (admin == null || !"ADMIN".equals(admin.getRole())) {
             throw new IllegalArgumentException("Only admins can create quizzes");
         }
         
         // Set metadata for new quiz
         quiz.setId(null); // Ensure MongoDB generates a new ID
-        quiz.setCreatedBy(adminId);
+        quiz.setVersion(null); // Insert, starting the optimistic lock at 0
+        quiz.setCreatedBy(admin.getId());
         quiz.setCreatedAt(LocalDateTime.now());
         quiz.setUpdatedAt(LocalDateTime.now());
         quiz.setIsPublished(false); // Start as draft
+        quiz.setContentVersion(1);
         quiz.setTotalAttempts(0);
         quiz.setPassCount(0);
-        quiz.setAverageScore(0.0);
+        quiz.setScoreSum(0);
         
         // Generate IDs for each question
         if (quiz.getQuestions() != null) {
@@ -57,17 +116,19 @@ public class QuizService {
                 }
             });
         }
+        quiz.setQuestionCount(quiz.getQuestions() != null ? quiz.getQuestions().size() : 0);
         
-        return quizRepository.save(quiz);
+        Quiz savedQuiz = quizRepository.save(quiz);
+        invalidateCatalog();
+        return savedQuiz;
     }
     
     /**
      * Update an existing quiz
      */
-    public Quiz updateQuiz(String quizId, Quiz updatedQuiz, String adminId) {
+    public Quiz updateQuiz(String quizId, Quiz updatedQuiz, AuthenticatedUser admin) {
         // Validate if user is an admin
-        User user = userRepository.findById(adminId).orElse(null);
-        if (user == null || !"ADMIN".equals(user.getRole())) {
+        if (admin == null || !"ADMIN".equals(admin.getRole())) {
             throw new IllegalArgumentException("Only admins can update quizzes");
         }
         
@@ -76,19 +137,10 @@ public class QuizService {
                 .orElseThrow(() -> new IllegalArgumentException("Quiz not found"));
         
         // Only the creator or a super admin can update the quiz
-        if (!existingQuiz.getCreatedBy().equals(adminId) && !"SUPER_ADMIN".equals(user.getRole())) {
+        if (!existingQuiz.getCreatedBy().equals(admin.getId()) && !"SUPER_ADMIN".equals(admin.getRole())) {
             throw new IllegalArgumentException("You don't have permission to update this quiz");
         }
         
-        // Update fields but preserve metadata
-        updatedQuiz.setId(existingQuiz.getId());
-        updatedQuiz.setCreatedBy(existingQuiz.getCreatedBy());
-        updatedQuiz.setCreatedAt(existingQuiz.getCreatedAt());
-        updatedQuiz.setUpdatedAt(LocalDateTime.now());
-        updatedQuiz.setTotalAttempts(existingQuiz.getTotalAttempts());
-        updatedQuiz.setPassCount(existingQuiz.getPassCount());
-        updatedQuiz.setAverageScore(existingQuiz.getAverageScore());
-        
         // Generate IDs for any new questions
         if (updatedQuiz.getQuestions() != null) {
             updatedQuiz.getQuestions().forEach(question -> {
@@ -98,7 +150,166 @@ public class QuizService {
             });
         }
         
-        return quizRepository.save(updatedQuiz);
+        // Update content fields only; metadata and statistics stay as stored. A client that
+        // sends the version it loaded gets a 409 instead of overwriting someone else's edit
+        Update update = new Update()
+                .set("title", updatedQuiz.getTitle())
+                .set("description", updatedQuiz.getDescription())
+                .set("category", updatedQuiz.getCategory())
+                .set("timeLimit", updatedQuiz.getTimeLimit())
+                .set("passingScore", updatedQuiz.getPassingScore())
+                .set("isPublished", updatedQuiz.isPublished())
+                .set("questions", updatedQuiz.getQuestions())
+                .set("questionCount", updatedQuiz.getQuestions() != null ? updatedQuiz.getQuestions().size() : 0)
+                .set("updatedAt", LocalDateTime.now())
+                .inc("contentVersion", 1);
+        
+        Quiz savedQuiz = modifyQuiz(quizId, updatedQuiz.getVersion(), update);
+        if (savedQuiz.isPublished()) {
+            // Attempts started from now on are scored against the new version
+            snapshotService.ensureSnapshot(savedQuiz);
+        }
+        invalidateCatalog();
+        quizJsonCache.evict(quizId);
+        return savedQuiz;
+    }
+    
+    /**
+     * Change a quiz's metadata without touching its questions
+     */
+    public Quiz updateQuizMetadata(String quizId, QuizMetadataUpdate changes, AuthenticatedUser admin) {
+        findQuizForEdit(quizId, admin, changes.getVersion(), null);
+        
+        Update update = contentEdit();
+        if (changes.getTitle() != null) {
+            if (changes.getTitle().isBlank()) {
+                throw new IllegalArgumentException("Title must not be empty");
+            }
+            update.set("title", changes.getTitle());
+        }
+        if (changes.getDescription() != null) {
+            update.set("description", changes.getDescription());
+        }
+        if (changes.getCategory() != null) {
+            update.set("category", changes.getCategory());
+        }
+        if (changes.getTimeLimit() != null) {
+            if (changes.getTimeLimit() < 0) {
+                throw new IllegalArgumentException("Time limit must not be negative");
+            }
+            update.set("timeLimit", changes.getTimeLimit());
+        }
+        if (changes.getPassingScore() != null) {
+            if (changes.getPassingScore() < 0 || changes.getPassingScore() > 100) {
+                throw new IllegalArgumentException("Passing score must be between 0 and 100");
+            }
+            update.set("passingScore", changes.getPassingScore());
+        }
+        return applyContentEdit(quizId, changes.getVersion(), null, update);
+    }
+    
+    /**
+     * Insert one question at the given position (appended by default) with a single $push
+     */
+    public Quiz addQuestion(String quizId, QuestionUpdate changes, AuthenticatedUser admin) {
+        Quiz quiz = findQuizForEdit(quizId, admin, changes.getVersion(), null);
+        if (changes.getText() == null || changes.getText().isBlank()) {
+            throw new IllegalArgumentException("Question text is required");
+        }
+        
+        Quiz.Question question = new Quiz.Question(UUID.randomUUID().toString(), changes.getText(),
+                changes.getType() != null ? changes.getType() : "MULTIPLE_CHOICE",
+                changes.getOptions() != null ? changes.getOptions() : new ArrayList<>(),
+                changes.getCorrectOptions() != null ? changes.getCorrectOptions() : new ArrayList<>());
+        
+        Update update = contentEdit().inc("questionCount", 1);
+        if (changes.getPosition() != null) {
+            if (changes.getPosition() < 0 || changes.getPosition() > quiz.getQuestionCount()) {
+                throw new IllegalArgumentException("Position must be between 0 and " + quiz.getQuestionCount());
+            }
+            update.push("questions").atPosition(changes.getPosition()).each(toDocument(question));
+        } else {
+            update.push("questions", toDocument(question));
+        }
+        return applyContentEdit(quizId, changes.getVersion(), null, update);
+    }
+    
+    /**
+     * Change the fields present in the patch on one question, rewriting only that element
+     */
+    public Quiz updateQuestion(String quizId, String questionId, QuestionUpdate changes, AuthenticatedUser admin) {
+        Quiz quiz = findQuizForEdit(quizId, admin, changes.getVersion(), questionId);
+        
+        Quiz.Question question = quiz.getQuestions().get(0);
+        if (changes.getText() != null) {
+            if (changes.getText().isBlank()) {
+                throw new IllegalArgumentException("Question text must not be empty");
+            }
+            question.setText(changes.getText());
+        }
+        if (changes.getType() != null) {
+            question.setType(changes.getType());
+        }
+        if (changes.getOptions() != null) {
+            question.setOptions(changes.getOptions());
+        }
+        if (changes.getCorrectOptions() != null) {
+            question.setCorrectOptions(changes.getCorrectOptions());
+        }
+        
+        // The version check makes the read-modify-write of the element safe
+        return applyContentEdit(quizId, changes.getVersion(), Criteria.where("questions._id").is(questionId),
+                contentEdit().set("questions.$", toDocument(question)));
+    }
+    
+    /**
+     * Remove one question with a single $pull
+     */
+    public Quiz deleteQuestion(String quizId, String questionId, Long version, AuthenticatedUser admin) {
+        Quiz quiz = findQuizForEdit(quizId, admin, version, questionId);
+        if (quiz.isPublished() && quiz.getQuestionCount() <= 1) {
+            throw new IllegalArgumentException("Cannot remove the last question of a published quiz");
+        }
+        
+        return applyContentEdit(quizId, version, null, contentEdit()
+                .pull("questions", new Document("_id", questionId))
+                .inc("questionCount", -1));
+    }
+    
+    /**
+     * Reorder the questions server-side: only the question IDs are sent, the questions
+     * themselves are rearranged by an update pipeline
+     */
+    public Quiz reorderQuestions(String quizId, QuestionOrderUpdate order, AuthenticatedUser admin) {
+        findQuizForEdit(quizId, admin, order.getVersion(), null);
+        
+        Query idsQuery = Query.query(Criteria.where("id").is(quizId));
+        idsQuery.fields().include("questions._id");
+        Quiz ids = mongoTemplate.findOne(idsQuery, Quiz.class);
+        Set<String> current = new HashSet<>();
+        if (ids != null && ids.getQuestions() != null) {
+            ids.getQuestions().forEach(question -> current.add(question.getId()));
+        }
+        List<String> questionIds = order.getQuestionIds() != null ? order.getQuestionIds() : new ArrayList<>();
+        if (questionIds.size() != current.size() || !current.equals(new HashSet<>(questionIds))) {
+            throw new IllegalArgumentException("questionIds must list every question of the quiz exactly once");
+        }
+        
+        Document reordered = new Document("$map", new Document("input", questionIds)
+                .append("as", "questionId")
+                .append("in", new Document("$arrayElemAt", List.of(
+                        new Document("$filter", new Document("input", "$questions")
+                                .append("as", "question")
+                                .append("cond", new Document("$eq", List.of("$$question._id", "$$questionId")))),
+                        0))));
+        Document set = new Document("questions", reordered)
+                .append("updatedAt", Date.from(LocalDateTime.now().atZone(ZoneId.systemDefault()).toInstant()))
+                .append("contentVersion", new Document("$add", List.of(new Document("$ifNull", List.of("$contentVersion", 0)), 1)));
+        // version is set through AggregationUpdate.set so the template sees it as modified and
+        // does not add its own @Version increment on top
+        return applyContentEdit(quizId, order.getVersion(), null,
+                AggregationUpdate.from(List.of(context -> new Document("$set", set)))
+                        .set(SetOperation.set("version").toValue(ArithmeticOperators.valueOf("version").add(1))));
     }
     
     /**
@@ -115,14 +326,63 @@ public class QuizService {
         return quizRepository.findByCreatedBy(adminId);
     }
     
+    /**
+     * Get all quizzes without their questions (admin list view)
+     */
+    public List<QuizSummaryDTO> getAllQuizSummaries() {
+        return toSummaries(quizRepository.findAllSummaries());
+    }
+    
+    /**
+     * Get quizzes by admin without their questions
+     */
+    public List<QuizSummaryDTO> getQuizSummariesByAdmin(String adminId) {
+        return toSummaries(quizRepository.findSummariesByCreatedBy(adminId));
+    }
+    
     /**
      * Get published quizzes (user view)
      */
     public List<QuizDTO> getPublishedQuizzes() {
-        return quizRepository.findByIsPublished(true)
-                .stream()
-                .map(quiz -> QuizDTO.fromQuiz(quiz, false)) // Don't include answers for users
-                .collect(Collectors.toList());
+        return readCatalog(() -> publishedCatalog, snapshot -> publishedCatalog = snapshot,
+                () -> quizRepository.findByIsPublished(true)
+                        .stream()
+                        .map(quiz -> QuizDTO.fromQuiz(quiz, false)) // Don't include answers for users
+                        .collect(Collectors.toList()),
+                QuizDTO::getId);
+    }
+    
+    /**
+     * Get published quizzes without their questions (user list view)
+     */
+    public List<QuizSummaryDTO> getPublishedQuizSummaries() {
+        return readCatalog(() -> publishedSummaries, snapshot -> publishedSummaries = snapshot,
+                () -> toSummaries(quizRepository.findSummariesByIsPublished(true)),
+                QuizSummaryDTO::getId);
+    }
+    
+    /**
+     * Get one page of published quizzes ordered by (updatedAt, id)
+     */
+    public PageResponse<Quiz> getPublishedQuizPage(String category, String cursor, Integer limit,
+                                                   String order, boolean summary) {
+        return findQuizPage(Criteria.where("isPublished").is(true), category, cursor, limit, order, summary);
+    }
+    
+    /**
+     * Get one page of all quizzes ordered by (updatedAt, id) (admin view)
+     */
+    public PageResponse<Quiz> getQuizPage(String category, String cursor, Integer limit,
+                                          String order, boolean summary) {
+        return findQuizPage(null, category, cursor, limit, order, summary);
+    }
+    
+    /**
+     * Get one page of an admin's quizzes ordered by (updatedAt, id)
+     */
+    public PageResponse<Quiz> getQuizPageByAdmin(String adminId, String category, String cursor,
+                                                 Integer limit, String order, boolean summary) {
+        return findQuizPage(Criteria.where("createdBy").is(adminId), category, cursor, limit, order, summary);
     }
     
     /**
@@ -132,13 +392,48 @@ public class QuizService {
         return quizRepository.findById(quizId);
     }
     
+    /**
+     * Get only the version fields of a quiz (no questions), for conditional requests
+     */
+    public Optional<Quiz> getQuizVersion(String quizId) {
+        return quizRepository.findVersionById(quizId);
+    }
+    
+    /**
+     * Strong ETag for a quiz detail view; works on a full quiz or a getQuizVersion projection
+     */
+    public String getQuizETag(Quiz quiz, boolean includeAnswers) {
+        String version = quiz.getId() + ':' + quiz.getUpdatedAt() + ':' + quiz.getLastAttemptAt() + ':'
+                + quiz.isPublished() + ':' + quiz.getTotalAttempts() + ':' + quiz.getPassCount() + ':'
+                + quiz.getAverageScore() + ':' + (includeAnswers ? "admin" : "student");
+        return '"' + DigestUtils.md5DigestAsHex(version.getBytes(StandardCharsets.UTF_8)) + '"';
+    }
+    
+    /**
+     * Last-Modified for a quiz detail view: content edits or statistics, whichever is newer
+     */
+    public long getQuizLastModified(Quiz quiz) {
+        LocalDateTime lastModified = quiz.getUpdatedAt();
+        if (quiz.getLastAttemptAt() != null && (lastModified == null || quiz.getLastAttemptAt().isAfter(lastModified))) {
+            lastModified = quiz.getLastAttemptAt();
+        }
+        return lastModified != null ? lastModified.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : -1;
+    }
+    
+    /**
+     * Strong ETag for the published catalog; changes on every admin write or statistics update
+     */
+    public String getCatalogETag(boolean summary) {
+        return "\"catalog-" + catalogEpoch + '-' + catalogGeneration.get() + '-' + catalogStatsRevision.get()
+                + (summary ? "-summary" : "") + '"';
+    }
+    
     /**
      * Publish a quiz
      */
-    public Quiz publishQuiz(String quizId, String adminId) {
+    public Quiz publishQuiz(String quizId, AuthenticatedUser admin) {
         // Validate if user is an admin
-        User user = userRepository.findById(adminId).orElse(null);
-        if (user == null || !"ADMIN".equals(user.getRole())) {
+        if (admin == null || !"ADMIN".equals(admin.getRole())) {
             throw new IllegalArgumentException("Only admins can publish quizzes");
         }
         
@@ -147,7 +442,7 @@ public class QuizService {
                 .orElseThrow(() -> new IllegalArgumentException("Quiz not found"));
         
         // Only the creator or a super admin can publish the quiz
-        if (!quiz.getCreatedBy().equals(adminId) && !"SUPER_ADMIN".equals(user.getRole())) {
+        if (!quiz.getCreatedBy().equals(admin.getId()) && !"SUPER_ADMIN".equals(admin.getRole())) {
             throw new IllegalArgumentException("You don't have permission to publish this quiz");
         }
         
@@ -156,19 +451,21 @@ public class QuizService {
             throw new IllegalArgumentException("Cannot publish quiz with no questions");
         }
         
-        quiz.setIsPublished(true);
-        quiz.setUpdatedAt(LocalDateTime.now());
-        
-        return quizRepository.save(quiz);
+        Quiz savedQuiz = modifyQuiz(quizId, null, new Update()
+                .set("isPublished", true)
+                .set("updatedAt", LocalDateTime.now()));
+        snapshotService.ensureSnapshot(savedQuiz);
+        invalidateCatalog();
+        quizJsonCache.evict(quizId);
+        return savedQuiz;
     }
     
     /**
      * Unpublish a quiz
      */
-    public Quiz unpublishQuiz(String quizId, String adminId) {
+    public Quiz unpublishQuiz(String quizId, AuthenticatedUser admin) {
         // Validate if user is an admin
-        User user = userRepository.findById(adminId).orElse(null);
-        if (user == null || !"ADMIN".equals(user.getRole())) {
+        if (admin == null || !"ADMIN".equals(admin.getRole())) {
             throw new IllegalArgumentException("Only admins can unpublish quizzes");
         }
         
@@ -177,23 +474,24 @@ public class QuizService {
                 .orElseThrow(() -> new IllegalArgumentException("Quiz not found"));
         
         // Only the creator or a super admin can unpublish the quiz
-        if (!quiz.getCreatedBy().equals(adminId) && !"SUPER_ADMIN".equals(user.getRole())) {
+        if (!quiz.getCreatedBy().equals(admin.getId()) && !"SUPER_ADMIN".equals(admin.getRole())) {
             throw new IllegalArgumentException("You don't have permission to unpublish this quiz");
         }
         
-        quiz.setIsPublished(false);
-        quiz.setUpdatedAt(LocalDateTime.now());
-        
-        return quizRepository.save(quiz);
+        Quiz savedQuiz = modifyQuiz(quizId, null, new Update()
+                .set("isPublished", false)
+                .set("updatedAt", LocalDateTime.now()));
+        invalidateCatalog();
+        quizJsonCache.evict(quizId);
+        return savedQuiz;
     }
     
     /**
      * Delete a quiz
      */
-    public void deleteQuiz(String quizId, String adminId) {
+    public QuizDeletionJob deleteQuiz(String quizId, AuthenticatedUser admin) {
         // Validate if user is an admin
-        User user = userRepository.findById(adminId).orElse(null);
-        if (user == null || !"ADMIN".equals(user.getRole())) {
+        if (admin == null || !"ADMIN".equals(admin.getRole())) {
             throw new IllegalArgumentException("Only admins can delete quizzes");
         }
         
@@ -202,38 +500,263 @@ public class QuizService {
                 .orElseThrow(() -> new IllegalArgumentException("Quiz not found"));
         
         // Only the creator or a super admin can delete the quiz
-        if (!quiz.getCreatedBy().equals(adminId) && !"SUPER_ADMIN".equals(user.getRole())) {
+        if (!quiz.getCreatedBy().equals(admin.getId()) && !"SUPER_ADMIN".equals(admin.getRole())) {
             throw new IllegalArgumentException("You don't have permission to delete this quiz");
         }
         
-        // Delete all attempts for this quiz as well
-        List<QuizAttempt> attempts = quizAttemptRepository.findByQuizId(quizId);
-        if (!attempts.isEmpty()) {
-            quizAttemptRepository.deleteAll(attempts);
-        }
+        // Record the job first so the attempts are still removed if the node stops mid-way
+        QuizDeletionJob job = quizDeletionService.schedule(quiz, admin.getId());
         
-        // Delete the quiz
+        // The quiz disappears right away; its attempts are deleted in the background
         quizRepository.deleteById(quizId);
+        invalidateCatalog();
+        quizJsonCache.evict(quizId);
+        leaderboardService.removeQuiz(quizId);
+        return job;
+    }
+    
+    /**
+     * Fold statistics flushed by QuizStatisticsAggregator into the cached catalog by publishing
+     * snapshots that hold updated copies of the affected entries
+     */
+    public void applyStatisticsDelta(String quizId, long attempts, long passes, long scoreSum) {
+        // Under the rebuild lock so a snapshot rebuilt meanwhile is never overwritten by an older one
+        synchronized (catalogRebuildLock) {
+            CatalogSnapshot<QuizDTO> catalog = current(publishedCatalog);
+            if (catalog != null && catalog.byId.containsKey(quizId)) {
+                publishedCatalog = catalog.replace(quizId,
+                        dto -> dto.withStatisticsDelta(attempts, passes, scoreSum), QuizDTO::getId);
+            }
+            
+            CatalogSnapshot<QuizSummaryDTO> summaries = current(publishedSummaries);
+            if (summaries != null && summaries.byId.containsKey(quizId)) {
+                publishedSummaries = summaries.replace(quizId,
+                        dto -> dto.withStatisticsDelta(attempts, passes, scoreSum), QuizSummaryDTO::getId);
+            }
+        }
+        catalogStatsRevision.incrementAndGet();
+    }
+    
+    /**
+     * Get hit/miss/rebuild counters for the published catalog cache
+     */
+    public Map<String, Object> getCatalogCacheStats() {
+        CatalogSnapshot<QuizDTO> snapshot = current(publishedCatalog);
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("hits", catalogHits.get());
+        stats.put("misses", catalogMisses.get());
+        stats.put("rebuilds", catalogRebuilds.get());
+        stats.put("invalidations", catalogInvalidations.get());
+        stats.put("cachedEntries", snapshot != null ? snapshot.items.size() : 0);
+        stats.put("maxEntries", catalogCacheMaxEntries);
+        return stats;
+    }
+    
+    /**
+     * Drop the cached catalog so the next listing rebuilds it from Mongo
+     */
+    public void invalidateCatalog() {
+        catalogGeneration.incrementAndGet();
+        publishedCatalog = null;
+        publishedSummaries = null;
+        catalogInvalidations.incrementAndGet();
+    }
+    
+    /**
+     * Apply a targeted update and return the quiz as stored afterwards; with an expected
+     * version the update only applies if nobody else has written the quiz since
+     */
+    private Quiz modifyQuiz(String quizId, Long expectedVersion, Update update) {
+        Criteria criteria = Criteria.where("id").is(quizId);
+        if (expectedVersion != null) {
+            criteria.and("version").is(expectedVersion);
+        }
+        Quiz quiz = mongoTemplate.findAndModify(Query.query(criteria), update.inc("version", 1),
+                FindAndModifyOptions.options().returnNew(true), Quiz.class);
+        if (quiz == null) {
+            throw staleOrMissing(quizId);
+        }
+        return quiz;
+    }
+    
+    /**
+     * Apply a content edit made against expectedVersion, then snapshot the new content if the
+     * quiz is published and drop the cached views
+     */
+    private Quiz applyContentEdit(String quizId, Long expectedVersion, Criteria precondition, UpdateDefinition update) {
+        Criteria criteria = Criteria.where("id").is(quizId).and("version").is(expectedVersion);
+        if (precondition != null) {
+            criteria = new Criteria().andOperator(criteria, precondition);
+        }
+        Quiz quiz = mongoTemplate.findAndModify(Query.query(criteria), update,
+                FindAndModifyOptions.options().returnNew(true), Quiz.class);
+        if (quiz == null) {
+            throw staleOrMissing(quizId);
+        }
+        if (quiz.isPublished()) {
+            snapshotService.ensureSnapshot(quiz);
+        }
+        invalidateCatalog();
+        quizJsonCache.evict(quizId);
+        return quiz;
+    }
+    
+    /**
+     * Fields every content edit sets: a fresh updatedAt and the next version and content version
+     */
+    private static Update contentEdit() {
+        return new Update()
+                .set("updatedAt", LocalDateTime.now())
+                .inc("version", 1)
+                .inc("contentVersion", 1);
+    }
+    
+    private RuntimeException staleOrMissing(String quizId) {
+        if (quizRepository.existsById(quizId)) {
+            return new IllegalStateException("Quiz was changed by someone else; reload it and try again");
+        }
+        return new IllegalArgumentException("Quiz not found");
+    }
+    
+    /**
+     * Load the fields needed to authorize an edit (never the whole question bank), plus the
+     * one question being edited when questionId is given
+     */
+    private Quiz findQuizForEdit(String quizId, AuthenticatedUser admin, Long expectedVersion, String questionId) {
+        if (admin == null || !"ADMIN".equals(admin.getRole())) {
+            throw new IllegalArgumentException("Only admins can update quizzes");
+        }
+        if (expectedVersion == null) {
+            throw new IllegalArgumentException("version is required");
+        }
+        
+        Query query = Query.query(Criteria.where("id").is(quizId));
+        query.fields().include("createdBy", "version", "isPublished", "questionCount");
+        if (questionId != null) {
+            query.fields().elemMatch("questions", Criteria.where("_id").is(questionId));
+        }
+        Quiz quiz = mongoTemplate.findOne(query, Quiz.class);
+        if (quiz == null) {
+            throw new IllegalArgumentException("Quiz not found");
+        }
+        
+        // Only the creator or a super admin can update the quiz
+        if (!quiz.getCreatedBy().equals(admin.getId()) && !"SUPER_ADMIN".equals(admin.getRole())) {
+            throw new IllegalArgumentException("You don't have permission to update this quiz");
+        }
+        if (!expectedVersion.equals(quiz.getVersion())) {
+            throw new IllegalStateException("Quiz was changed by someone else; reload it and try again");
+        }
+        if (questionId != null && (quiz.getQuestions() == null || quiz.getQuestions().isEmpty())) {
+            throw new IllegalArgumentException("Question not found");
+        }
+        return quiz;
+    }
+    
+    private static Document toDocument(Quiz.Question question) {
+        // Same stored shape as a mapped question (answer key as a bitmask)
+        return OptionMaskConverters.QuestionWriter.INSTANCE.convert(question);
     }
     
     /**
-     * Update quiz statistics after a new attempt
+     * Keyset query backed by the (scope, [category,] updatedAt, _id) indexes declared on Quiz
      */
-    public void updateQuizStatistics(String quizId, int score, boolean passed) {
-        Quiz quiz = quizRepository.findById(quizId).orElse(null);
-        if (quiz == null) return;
+    private PageResponse<Quiz> findQuizPage(Criteria scope, String category, String cursor,
+                                            Integer limit, String order, boolean summary) {
+        int pageSize = KeysetCursor.pageSize(limit);
+        Sort.Direction direction = KeysetCursor.direction(order);
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        
+        List<Criteria> filters = new ArrayList<>();
+        if (scope != null) {
+            filters.add(scope);
+        }
+        if (category != null && !category.isBlank()) {
+            filters.add(Criteria.where("category").is(category));
+        }
+        if (after != null) {
+            filters.add(after.after("updatedAt", direction));
+        }
         
-        int totalAttempts = quiz.getTotalAttempts() + 1;
-        int passCount = quiz.getPassCount() + (passed ? 1 : 0);
+        Query query = filters.isEmpty() ? new Query() : new Query(new Criteria().andOperator(filters));
+        query.with(Sort.by(direction, "updatedAt", "id")).limit(pageSize + 1);
+        if (summary) {
+            query.fields().exclude("questions");
+        }
         
-        // Calculate new average score
-        double currentTotalScore = quiz.getAverageScore() * quiz.getTotalAttempts();
-        double newAverageScore = (currentTotalScore + score) / totalAttempts;
+        List<Quiz> quizzes = mongoTemplate.find(query, Quiz.class);
+        return KeysetCursor.page(quizzes, pageSize, quiz -> new KeysetCursor(quiz.getUpdatedAt(), quiz.getId()));
+    }
+    
+    /**
+     * Serve a catalog view from its snapshot, rebuilding it once under a lock on a miss
+     */
+    private <T> List<T> readCatalog(Supplier<CatalogSnapshot<T>> cache, Consumer<CatalogSnapshot<T>> store,
+                                    Supplier<List<T>> loader, Function<T, String> idOf) {
+        CatalogSnapshot<T> snapshot = current(cache.get());
+        if (snapshot != null) {
+            catalogHits.incrementAndGet();
+            return snapshot.items;
+        }
+        
+        catalogMisses.incrementAndGet();
+        synchronized (catalogRebuildLock) {
+            // Another thread may have rebuilt the catalog while we were waiting
+            snapshot = current(cache.get());
+            if (snapshot != null) {
+                return snapshot.items;
+            }
+            
+            long generation = catalogGeneration.get();
+            List<T> items = loader.get();
+            if (items.size() > catalogCacheMaxEntries) {
+                return items;
+            }
+            
+            snapshot = new CatalogSnapshot<>(generation, items, idOf);
+            store.accept(snapshot);
+            catalogRebuilds.incrementAndGet();
+            return snapshot.items;
+        }
+    }
+    
+    private <T> CatalogSnapshot<T> current(CatalogSnapshot<T> snapshot) {
+        if (snapshot != null && snapshot.generation == catalogGeneration.get()) {
+            return snapshot;
+        }
+        return null;
+    }
+    
+    private List<QuizSummaryDTO> toSummaries(List<Quiz> quizzes) {
+        return quizzes.stream()
+                .map(QuizSummaryDTO::fromQuiz)
+                .collect(Collectors.toList());
+    }
+    
+    /**
+     * Immutable view of a catalog tagged with the generation it was built for
+     */
+    private static final class CatalogSnapshot<T> {
+        private final long generation;
+        private final List<T> items;
+        private final Map<String, T> byId;
         
-        quiz.setTotalAttempts(totalAttempts);
-        quiz.setPassCount(passCount);
-        quiz.setAverageScore(newAverageScore);
+        private CatalogSnapshot(long generation, List<T> items, Function<T, String> idOf) {
+            this.generation = generation;
+            this.items = Collections.unmodifiableList(items);
+            this.byId = items.stream()
+                    .collect(Collectors.toMap(idOf, Function.identity(), (a, b) -> a));
+        }
         
-        quizRepository.save(quiz);
+        /**
+         * A snapshot of the same generation with one entry swapped for a changed copy
+         */
+        private CatalogSnapshot<T> replace(String id, UnaryOperator<T> change, Function<T, String> idOf) {
+            List<T> replaced = new ArrayList<>(items.size());
+            for (T item : items) {
+                replaced.add(id.equals(idOf.apply(item)) ? change.apply(item) : item);
+            }
+            return new CatalogSnapshot<>(generation, replaced, idOf);
+        }
     }
 }
\ No newline at end of file
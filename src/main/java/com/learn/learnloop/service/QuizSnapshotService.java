@@ -0,0 +1,172 @@
+package com.learn.learnloop.service;
+
+import com.learn.learnloop.model.Quiz;
+import com.learn.learnloop.model.QuizSnapshot;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Creates the immutable QuizSnapshot of each published content version and serves them from a
+ * size-bounded LRU cache keyed by (quizId, version). Snapshots never change, so entries are only
+ * ever dropped to make room, never invalidated.
+ */
+@Component
+public class QuizSnapshotService {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${app.quiz.snapshot-cache.max-entries:2000}")
+    private int maxEntries;
+
+    // Access-ordered so the least recently used version is evicted first
+    private final Map<String, CachedSnapshot> entries = new LinkedHashMap<String, CachedSnapshot>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CachedSnapshot> eldest) {
+            return size() > maxEntries;
+        }
+    };
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong created = new AtomicLong();
+
+    /**
+     * A snapshot together with what the hot paths derive from it
+     */
+    public static final class CachedSnapshot {
+        private final QuizSnapshot snapshot;
+        private final AnswerKey answerKey;
+        private final Map<String, String> questionTexts;
+
+        private CachedSnapshot(QuizSnapshot snapshot) {
+            this.snapshot = snapshot;
+            this.answerKey = AnswerKey.compile(snapshot);
+            Map<String, String> texts = new HashMap<>();
+            for (Quiz.Question question : snapshot.getQuestions()) {
+                texts.putIfAbsent(question.getId(), question.getText());
+            }
+            this.questionTexts = Collections.unmodifiableMap(texts);
+        }
+
+        public QuizSnapshot getSnapshot() {
+            return snapshot;
+        }
+
+        public AnswerKey getAnswerKey() {
+            return answerKey;
+        }
+
+        public Map<String, String> getQuestionTexts() {
+            return questionTexts;
+        }
+    }
+
+    /**
+     * Make sure the quiz's current content version has a snapshot (on publish, on edits while
+     * published, and lazily for quizzes published before snapshots existed)
+     */
+    public CachedSnapshot ensureSnapshot(Quiz quiz) {
+        String key = QuizSnapshot.key(quiz.getId(), quiz.getContentVersion());
+        CachedSnapshot entry = cached(key);
+        if (entry != null) {
+            return entry;
+        }
+        QuizSnapshot snapshot = mongoTemplate.findById(key, QuizSnapshot.class);
+        if (snapshot == null) {
+            snapshot = QuizSnapshot.of(quiz);
+            try {
+                mongoTemplate.insert(snapshot);
+                created.incrementAndGet();
+            } catch (DuplicateKeyException e) {
+                // Created concurrently from the same version; both copies are identical
+            }
+        }
+        return cache(key, snapshot);
+    }
+
+    /**
+     * The snapshot a versioned attempt was taken against
+     */
+    public CachedSnapshot get(String quizId, long version) {
+        String key = QuizSnapshot.key(quizId, version);
+        CachedSnapshot entry = cached(key);
+        if (entry != null) {
+            return entry;
+        }
+        QuizSnapshot snapshot = mongoTemplate.findById(key, QuizSnapshot.class);
+        if (snapshot == null) {
+            throw new IllegalArgumentException("Quiz not found");
+        }
+        return cache(key, snapshot);
+    }
+
+    /**
+     * Many snapshots by key (see QuizSnapshot.key), loading all misses in one query; unknown
+     * keys are left out of the result
+     */
+    public Map<String, CachedSnapshot> getAll(Collection<String> keys) {
+        Map<String, CachedSnapshot> found = new HashMap<>();
+        Set<String> missing = new HashSet<>();
+        for (String key : keys) {
+            CachedSnapshot entry = cached(key);
+            if (entry != null) {
+                found.put(key, entry);
+            } else {
+                missing.add(key);
+            }
+        }
+        if (!missing.isEmpty()) {
+            for (QuizSnapshot snapshot : mongoTemplate.find(Query.query(Criteria.where("id").in(missing)), QuizSnapshot.class)) {
+                found.put(snapshot.getId(), cache(snapshot.getId(), snapshot));
+            }
+        }
+        return found;
+    }
+
+    public Map<String, Object> getStats() {
+        int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("hits", hits.get());
+        stats.put("misses", misses.get());
+        stats.put("snapshotsCreated", created.get());
+        stats.put("cachedEntries", size);
+        stats.put("maxEntries", maxEntries);
+        return stats;
+    }
+
+    private CachedSnapshot cached(String key) {
+        CachedSnapshot entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+        }
+        (entry != null ? hits : misses).incrementAndGet();
+        return entry;
+    }
+
+    private CachedSnapshot cache(String key, QuizSnapshot snapshot) {
+        CachedSnapshot entry = new CachedSnapshot(snapshot);
+        synchronized (entries) {
+            CachedSnapshot existing = entries.putIfAbsent(key, entry);
+            return existing != null ? existing : entry;
+        }
+    }
+}
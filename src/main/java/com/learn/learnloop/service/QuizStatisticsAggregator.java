@@ -0,0 +1,313 @@
+package com.learn.learnloop.service;
+
+import com.learn.learnloop.model.Quiz;
+import com.learn.learnloop.model.QuizAttempt;
+
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.util.CloseableIterator;
+import org.springframework.data.util.Pair;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Write-behind accumulator for quiz statistics: submissions add to striped in-memory counters
+ * and a periodic flush applies the deltas to the quiz documents in one bulk write
+ */
+@Component
+public class QuizStatisticsAggregator {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private QuizService quizService;
+
+    // Rebuild all statistics from quiz_attempts at startup, e.g. after a crash lost unflushed deltas
+    @Value("${app.quiz.stats.rebuild-on-startup:false}")
+    private boolean rebuildOnStartup;
+
+    private final int stripes = stripeCount();
+    private final Map<String, QuizCounters> counters = new ConcurrentHashMap<>();
+
+    private final AtomicLong flushes = new AtomicLong();
+    private final AtomicLong flushedQuizUpdates = new AtomicLong();
+    private final AtomicLong failedFlushes = new AtomicLong();
+
+    @PostConstruct
+    public void recoverOnStartup() {
+        // Quizzes attempted before score histograms existed are backfilled by a rebuild
+        boolean missingHistograms = mongoTemplate.exists(
+                Query.query(Criteria.where("totalAttempts").gt(0).and("scoreHistogram").exists(false)), Quiz.class);
+        if (rebuildOnStartup || missingHistograms) {
+            rebuildFromAttempts();
+        }
+    }
+
+    /**
+     * Record one completed attempt; never touches Mongo
+     */
+    public void record(String quizId, int score, boolean passed) {
+        counters.computeIfAbsent(quizId, id -> new QuizCounters(stripes)).add(score, passed);
+    }
+
+    /**
+     * Score counts recorded but not yet flushed for a quiz, or null if there are none
+     */
+    public long[] pendingHistogram(String quizId) {
+        QuizCounters quizCounters = counters.get(quizId);
+        return quizCounters != null ? quizCounters.pendingHistogram() : null;
+    }
+    
+    /**
+     * Apply all pending deltas with a single unordered bulk write
+     */
+    @Scheduled(fixedDelayString = "${app.quiz.stats.flush-interval-ms:5000}")
+    public synchronized void flush() {
+        Map<String, long[]> deltas = new LinkedHashMap<>();
+        counters.forEach((quizId, quizCounters) -> {
+            long[] delta = quizCounters.drain();
+            // Any field counts: an increment can be drained across two flushes field by field
+            if (!isEmpty(delta)) {
+                deltas.put(quizId, delta);
+            }
+        });
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Pair<Query, Update>> updates = new ArrayList<>(deltas.size());
+        deltas.forEach((quizId, delta) -> {
+            Update update = new Update()
+                    .inc("totalAttempts", (int) delta[QuizCounters.ATTEMPTS])
+                    .inc("passCount", (int) delta[QuizCounters.PASSES])
+                    .inc("scoreSum", delta[QuizCounters.SCORE_SUM]);
+            if (delta[QuizCounters.ATTEMPTS] != 0) {
+                update.set("lastAttemptAt", now);
+            }
+            for (int bucket = 0; bucket < ScoreHistogram.BUCKETS; bucket++) {
+                long count = delta[QuizCounters.HISTOGRAM + bucket];
+                if (count != 0) {
+                    update.inc("scoreHistogram." + bucket, count);
+                }
+            }
+            updates.add(Pair.of(Query.query(Criteria.where("id").is(quizId)), update));
+        });
+
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Quiz.class)
+                    .updateOne(updates)
+                    .execute();
+        } catch (RuntimeException e) {
+            // Put the deltas back so the next flush retries them
+            failedFlushes.incrementAndGet();
+            deltas.forEach((quizId, delta) ->
+                    counters.computeIfAbsent(quizId, id -> new QuizCounters(stripes)).restore(delta));
+            System.err.println("Failed to flush quiz statistics: " + e.getMessage());
+            return;
+        }
+
+        flushes.incrementAndGet();
+        flushedQuizUpdates.addAndGet(deltas.size());
+        deltas.forEach((quizId, delta) -> quizService.applyStatisticsDelta(quizId,
+                delta[QuizCounters.ATTEMPTS], delta[QuizCounters.PASSES], delta[QuizCounters.SCORE_SUM]));
+    }
+
+    private static boolean isEmpty(long[] delta) {
+        for (long value : delta) {
+            if (value != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    /**
+     * Recompute every quiz's statistics from its completed attempts. Pending deltas are flushed
+     * first; attempts completed while the rebuild runs may be counted twice, so run it at startup
+     * or while submissions are quiet.
+     */
+    public synchronized int rebuildFromAttempts() {
+        flush();
+
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("completed").is(true)),
+                Aggregation.group("quizId")
+                        .count().as("totalAttempts")
+                        .sum(ConditionalOperators.when(Criteria.where("passed").is(true)).then(1).otherwise(0)).as("passCount")
+                        .sum("score").as("scoreSum"))
+                .withOptions(AggregationOptions.builder().allowDiskUse(true).build());
+
+        // One row per (quiz, score) for the histograms
+        Aggregation histogramAggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("completed").is(true)),
+                Aggregation.group("quizId", "score").count().as("count"))
+                .withOptions(AggregationOptions.builder().allowDiskUse(true).build());
+
+        Map<String, Document> histograms = new HashMap<>();
+        try (CloseableIterator<Document> rows = mongoTemplate.aggregateStream(histogramAggregation, QuizAttempt.class, Document.class)) {
+            while (rows.hasNext()) {
+                Document row = rows.next();
+                Document key = row.get("_id", Document.class);
+                String quizId = key.getString("quizId");
+                Number score = (Number) key.get("score");
+                if (quizId == null || score == null) continue;
+                Document histogram = histograms.computeIfAbsent(quizId, id -> new Document());
+                String bucket = Integer.toString(ScoreHistogram.bucket(score.intValue()));
+                histogram.put(bucket, histogram.get(bucket, 0L) + ((Number) row.get("count")).longValue());
+            }
+        }
+
+        List<String> quizIds = new ArrayList<>();
+        List<Pair<Query, Update>> updates = new ArrayList<>();
+        try (CloseableIterator<Document> groups = mongoTemplate.aggregateStream(aggregation, QuizAttempt.class, Document.class)) {
+            while (groups.hasNext()) {
+                Document group = groups.next();
+                String quizId = group.getString("_id");
+                if (quizId == null) continue;
+                quizIds.add(quizId);
+                updates.add(Pair.of(
+                        Query.query(Criteria.where("id").is(quizId)),
+                        new Update()
+                                .set("totalAttempts", ((Number) group.get("totalAttempts")).intValue())
+                                .set("passCount", ((Number) group.get("passCount")).intValue())
+                                .set("scoreSum", ((Number) group.get("scoreSum")).longValue())
+                                .set("scoreHistogram", histograms.getOrDefault(quizId, new Document()))));
+            }
+        }
+
+        if (!updates.isEmpty()) {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Quiz.class)
+                    .updateOne(updates)
+                    .execute();
+        }
+        // Quizzes without any completed attempt start from zero; written by collection name so
+        // the template does not bump the @Version that quiz edits are checked against
+        mongoTemplate.updateMulti(
+                Query.query(Criteria.where("_id").nin(quizIds)),
+                new Update().set("totalAttempts", 0).set("passCount", 0).set("scoreSum", 0L)
+                        .set("scoreHistogram", new Document()),
+                "quizzes");
+
+        quizService.invalidateCatalog();
+        return quizIds.size();
+    }
+
+    public Map<String, Object> getStats() {
+        long pendingAttempts = 0;
+        for (QuizCounters quizCounters : counters.values()) {
+            pendingAttempts += quizCounters.pendingAttempts();
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("trackedQuizzes", counters.size());
+        stats.put("pendingAttempts", pendingAttempts);
+        stats.put("flushes", flushes.get());
+        stats.put("flushedQuizUpdates", flushedQuizUpdates.get());
+        stats.put("failedFlushes", failedFlushes.get());
+        return stats;
+    }
+
+    private static int stripeCount() {
+        int cores = Runtime.getRuntime().availableProcessors();
+        return Integer.highestOneBit(Math.max(1, cores - 1)) << 1;
+    }
+
+    /**
+     * LongAdder-style counters for one quiz, striped by thread. Each stripe is padded to its own
+     * cache line, and draining uses getAndSet so no increment is ever lost (one increment may
+     * land in the next flush for one field and this flush for another). The score histogram is
+     * not striped: concurrent submissions rarely share a score bucket.
+     */
+    private static final class QuizCounters {
+        static final int ATTEMPTS = 0;
+        static final int PASSES = 1;
+        static final int SCORE_SUM = 2;
+        static final int HISTOGRAM = 3; // drained deltas hold the 101 score buckets from here on
+        private static final int FIELDS = 3;
+        private static final int STRIDE = 8; // 8 longs = one 64-byte cache line
+
+        private final AtomicLongArray cells;
+        private final AtomicLongArray histogram = new AtomicLongArray(ScoreHistogram.BUCKETS);
+        private final int mask;
+
+        QuizCounters(int stripes) {
+            this.cells = new AtomicLongArray(stripes * STRIDE);
+            this.mask = stripes - 1;
+        }
+
+        void add(int score, boolean passed) {
+            int base = (int) (Thread.currentThread().getId() & mask) * STRIDE;
+            cells.getAndIncrement(base + ATTEMPTS);
+            if (passed) {
+                cells.getAndIncrement(base + PASSES);
+            }
+            cells.getAndAdd(base + SCORE_SUM, score);
+            histogram.getAndIncrement(ScoreHistogram.bucket(score));
+        }
+
+        long[] drain() {
+            long[] totals = new long[HISTOGRAM + ScoreHistogram.BUCKETS];
+            for (int base = 0; base < cells.length(); base += STRIDE) {
+                for (int field = 0; field < FIELDS; field++) {
+                    totals[field] += cells.getAndSet(base + field, 0);
+                }
+            }
+            for (int bucket = 0; bucket < ScoreHistogram.BUCKETS; bucket++) {
+                totals[HISTOGRAM + bucket] = histogram.getAndSet(bucket, 0);
+            }
+            return totals;
+        }
+
+        void restore(long[] delta) {
+            for (int field = 0; field < FIELDS; field++) {
+                cells.getAndAdd(field, delta[field]);
+            }
+            for (int bucket = 0; bucket < ScoreHistogram.BUCKETS; bucket++) {
+                histogram.getAndAdd(bucket, delta[HISTOGRAM + bucket]);
+            }
+        }
+
+        long[] pendingHistogram() {
+            long[] pending = new long[ScoreHistogram.BUCKETS];
+            for (int bucket = 0; bucket < ScoreHistogram.BUCKETS; bucket++) {
+                pending[bucket] = histogram.get(bucket);
+            }
+            return pending;
+        }
+
+        long pendingAttempts() {
+            long pending = 0;
+            for (int base = 0; base < cells.length(); base += STRIDE) {
+                pending += cells.get(base + ATTEMPTS);
+            }
+            return pending;
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package com.learn.learnloop.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Each user's best result on one leaderboard, kept in an order-statistic treap so inserts,
+ * "rank of user" and "top N" are all O(log n) (+ N for the listing)
+ */
+public final class RankedScores {
+
+    /**
+     * One user's best result; higher score first, then less time spent, then user ID
+     */
+    public static final class Entry {
+        private final String userId;
+        private final int score;
+        private final int timeSpent;
+
+        private Entry(String userId, int score, int timeSpent) {
+            this.userId = userId;
+            this.score = score;
+            this.timeSpent = timeSpent;
+        }
+
+        public String getUserId() {
+            return userId;
+        }
+
+        public int getScore() {
+            return score;
+        }
+
+        public int getTimeSpent() {
+            return timeSpent;
+        }
+
+        private boolean isBetterThan(Entry other) {
+            return compare(this, other) < 0;
+        }
+
+        private static int compare(Entry a, Entry b) {
+            if (a.score != b.score) return Integer.compare(b.score, a.score);
+            if (a.timeSpent != b.timeSpent) return Integer.compare(a.timeSpent, b.timeSpent);
+            return a.userId.compareTo(b.userId);
+        }
+    }
+
+    private static final class Node {
+        private final Entry entry;
+        private final int priority;
+        private Node left;
+        private Node right;
+        private int size = 1;
+
+        private Node(Entry entry) {
+            this.entry = entry;
+            this.priority = ThreadLocalRandom.current().nextInt();
+        }
+    }
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Entry> bestByUser = new HashMap<>();
+    private Node root;
+
+    /**
+     * Record a result; only replaces the user's entry if it ranks higher
+     */
+    public boolean offer(String userId, int score, int timeSpent) {
+        Entry candidate = new Entry(userId, score, timeSpent);
+        lock.writeLock().lock();
+        try {
+            Entry current = bestByUser.get(userId);
+            if (current != null) {
+                if (!candidate.isBetterThan(current)) {
+                    return false;
+                }
+                root = remove(root, current);
+            }
+            bestByUser.put(userId, candidate);
+            root = insert(root, new Node(candidate));
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 1-based rank of a user, or 0 if the user has no result on this board
+     */
+    public int rankOf(String userId) {
+        lock.readLock().lock();
+        try {
+            Entry entry = bestByUser.get(userId);
+            if (entry == null) {
+                return 0;
+            }
+            int rank = 1;
+            Node node = root;
+            while (node != null) {
+                int cmp = Entry.compare(entry, node.entry);
+                if (cmp < 0) {
+                    node = node.left;
+                } else {
+                    rank += size(node.left);
+                    if (cmp == 0) {
+                        return rank;
+                    }
+                    rank++;
+                    node = node.right;
+                }
+            }
+            return 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Entry get(String userId) {
+        lock.readLock().lock();
+        try {
+            return bestByUser.get(userId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * The best {@code limit} entries in rank order
+     */
+    public List<Entry> top(int limit) {
+        lock.readLock().lock();
+        try {
+            List<Entry> entries = new ArrayList<>(Math.min(limit, size(root)));
+            collect(root, entries, limit);
+            return entries;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size(root);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static void collect(Node node, List<Entry> out, int limit) {
+        if (node == null || out.size() >= limit) {
+            return;
+        }
+        collect(node.left, out, limit);
+        if (out.size() < limit) {
+            out.add(node.entry);
+            collect(node.right, out, limit);
+        }
+    }
+
+    private static int size(Node node) {
+        return node != null ? node.size : 0;
+    }
+
+    private static Node update(Node node) {
+        node.size = 1 + size(node.left) + size(node.right);
+        return node;
+    }
+
+    private static Node insert(Node node, Node inserted) {
+        if (node == null) {
+            return inserted;
+        }
+        if (Entry.compare(inserted.entry, node.entry) < 0) {
+            node.left = insert(node.left, inserted);
+            if (node.left.priority > node.priority) {
+                node = rotateRight(node);
+            }
+        } else {
+            node.right = insert(node.right, inserted);
+            if (node.right.priority > node.priority) {
+                node = rotateLeft(node);
+            }
+        }
+        return update(node);
+    }
+
+    private static Node remove(Node node, Entry entry) {
+        if (node == null) {
+            return null;
+        }
+        int cmp = Entry.compare(entry, node.entry);
+        if (cmp < 0) {
+            node.left = remove(node.left, entry);
+        } else if (cmp > 0) {
+            node.right = remove(node.right, entry);
+        } else {
+            if (node.left == null) return node.right;
+            if (node.right == null) return node.left;
+            if (node.left.priority > node.right.priority) {
+                node = rotateRight(node);
+                node.right = remove(node.right, entry);
+            } else {
+                node = rotateLeft(node);
+                node.left = remove(node.left, entry);
+            }
+        }
+        return update(node);
+    }
+
+    private static Node rotateRight(Node node) {
+        Node left = node.left;
+        node.left = left.right;
+        left.right = update(node);
+        return update(left);
+    }
+
+    private static Node rotateLeft(Node node) {
+        Node right = node.right;
+        node.right = right.left;
+        right.left = update(node);
+        return update(right);
+    }
+}
@@ -0,0 +1,168 @@
+package com.learn.learnloop.service;
+
+import com.learn.learnloop.config.OptionMaskConverters;
+import com.learn.learnloop.model.QuizAttempt;
+
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Coalesces autosaved answers: edits to an attempt are held for a short delay and only the latest
+ * answer per question is written, each with a positional update of its responses element
+ */
+@Component
+public class ResponseAutosaveBuffer {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${app.quiz.autosave.coalesce-ms:500}")
+    private long coalesceMillis;
+
+    private final Map<String, PendingAttempt> pendingAttempts = new ConcurrentHashMap<>();
+    private ScheduledExecutorService flusher;
+
+    private final AtomicLong edits = new AtomicLong();
+    private final AtomicLong writes = new AtomicLong();
+
+    /**
+     * Answers not yet written for one attempt; guarded by its own monitor so the scheduled flush
+     * and a flush from submit never write the same question out of order
+     */
+    private static final class PendingAttempt {
+        private final String attemptId;
+        private final String userId;
+        private final Map<String, List<String>> answers = new LinkedHashMap<>();
+        private ScheduledFuture<?> scheduledFlush;
+        private boolean retired;
+
+        private PendingAttempt(String attemptId, String userId) {
+            this.attemptId = attemptId;
+            this.userId = userId;
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "autosave-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void stop() {
+        for (PendingAttempt pending : pendingAttempts.values()) {
+            flush(pending);
+        }
+        flusher.shutdown();
+    }
+
+    /**
+     * Queue the latest answer to one question of an open attempt owned by userId
+     */
+    public void save(String attemptId, String userId, String questionId, List<String> selectedOptions) {
+        edits.incrementAndGet();
+        List<String> answer = selectedOptions != null ? new ArrayList<>(selectedOptions) : new ArrayList<>();
+        while (true) {
+            PendingAttempt pending = pendingAttempts.computeIfAbsent(attemptId, id -> new PendingAttempt(id, userId));
+            synchronized (pending) {
+                if (pending.retired) {
+                    continue; // flushed between lookup and lock; start a fresh batch
+                }
+                pending.answers.put(questionId, answer);
+                if (pending.scheduledFlush == null) {
+                    pending.scheduledFlush = flusher.schedule(() -> flush(pending), coalesceMillis, TimeUnit.MILLISECONDS);
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * Write any buffered answers of an attempt now, e.g. right before it is scored
+     */
+    public void flushAttempt(String attemptId) {
+        PendingAttempt pending = pendingAttempts.get(attemptId);
+        if (pending != null) {
+            flush(pending);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("edits", edits.get());
+        stats.put("writes", writes.get());
+        stats.put("pendingAttempts", pendingAttempts.size());
+        return stats;
+    }
+
+    private void flush(PendingAttempt pending) {
+        synchronized (pending) {
+            if (pending.retired) {
+                return;
+            }
+            pending.retired = true;
+            if (pending.scheduledFlush != null) {
+                pending.scheduledFlush.cancel(false);
+            }
+            try {
+                pending.answers.forEach((questionId, answer) -> write(pending, questionId, answer));
+            } catch (RuntimeException e) {
+                System.err.println("Failed to autosave responses for attempt " + pending.attemptId + ": " + e.getMessage());
+            } finally {
+                // Only unlisted once written, so a flushAttempt arriving mid-write finds this batch
+                // and waits on its monitor instead of scoring before the answers are stored
+                pendingAttempts.remove(pending.attemptId, pending);
+            }
+        }
+    }
+
+    /**
+     * Replace the question's element in place, or append it if the question has no answer yet;
+     * both only match an open attempt owned by the user
+     */
+    private void write(PendingAttempt pending, String questionId, List<String> answer) {
+        // Same stored shape as a mapped QuestionResponse (options as a bitmask)
+        Document response = OptionMaskConverters.QuestionResponseWriter.INSTANCE.convert(
+                new QuizAttempt.QuestionResponse(questionId, answer, false));
+
+        long matched = mongoTemplate.updateFirst(
+                new Query(openAttempt(pending).and("responses.questionId").is(questionId)),
+                new Update().set("responses.$", response),
+                QuizAttempt.class).getMatchedCount();
+        if (matched == 0) {
+            mongoTemplate.updateFirst(
+                    new Query(openAttempt(pending).and("responses.questionId").ne(questionId)),
+                    new Update().push("responses", response),
+                    QuizAttempt.class);
+        }
+        writes.incrementAndGet();
+    }
+
+    private static Criteria openAttempt(PendingAttempt pending) {
+        return Criteria.where("id").is(pending.attemptId)
+                .and("userId").is(pending.userId)
+                .and("completed").is(false);
+    }
+}
@@ -0,0 +1,58 @@
+package com.learn.learnloop.service;
+
+import java.util.Map;
+
+/**
+ * Percentile ranks from a quiz's 101-bucket score histogram (one bucket per integer percentage)
+ */
+public final class ScoreHistogram {
+
+    public static final int BUCKETS = 101;
+
+    private ScoreHistogram() {
+    }
+
+    /**
+     * Bucket index for a score, clamped to 0..100
+     */
+    public static int bucket(int score) {
+        return Math.max(0, Math.min(BUCKETS - 1, score));
+    }
+
+    /**
+     * Mid-rank percentile of a score: the share of attempts scoring lower plus half of those
+     * with the same score, over the persisted histogram and any not yet flushed counts.
+     * Returns null when the histogram is empty.
+     */
+    public static Double percentile(Map<String, Long> persisted, long[] pending, int score) {
+        int target = bucket(score);
+        long below = 0;
+        long equal = 0;
+        long total = 0;
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            long count = count(persisted, pending, bucket);
+            total += count;
+            if (bucket < target) {
+                below += count;
+            } else if (bucket == target) {
+                equal = count;
+            }
+        }
+        if (total == 0) {
+            return null;
+        }
+        double percentile = (below + equal / 2.0) * 100.0 / total;
+        return Math.round(percentile * 10) / 10.0;
+    }
+
+    private static long count(Map<String, Long> persisted, long[] pending, int bucket) {
+        long count = pending != null ? pending[bucket] : 0;
+        if (persisted != null) {
+            Long stored = persisted.get(Integer.toString(bucket));
+            if (stored != null) {
+                count += stored;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,138 @@
+package com.learn.learnloop.config;
+
+import com.learn.learnloop.model.Quiz;
+import com.learn.learnloop.model.QuizAttempt;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.DocumentCodec;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OptionMaskConvertersTest {
+
+	private static final DocumentCodec CODEC = new DocumentCodec();
+
+	private static int bsonSize(List<Document> elements) {
+		return new RawBsonDocument(new Document("v", elements), CODEC).getByteBuffer().remaining();
+	}
+
+	private static List<String> randomOptions(Random random, boolean multiple) {
+		List<String> options = new ArrayList<>();
+		for (int i = 0; i < 4; i++) {
+			if (multiple ? random.nextBoolean() : options.isEmpty() && (i == 3 || random.nextInt(4) == 0)) {
+				options.add(Integer.toString(i));
+			}
+		}
+		return options;
+	}
+
+	private static MappingMongoConverter configuredConverter() {
+		MongoCustomConversions conversions = new MongoCustomConversions(OptionMaskConverters.all());
+		MongoMappingContext mappingContext = new MongoMappingContext();
+		mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+		mappingContext.afterPropertiesSet();
+		MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+		converter.setCustomConversions(conversions);
+		converter.afterPropertiesSet();
+		return converter;
+	}
+
+	@Test
+	void projectionOnQuestionIdsReadsTheIds() {
+		// Question is a simple type once its converters are registered, so nested paths are not
+		// mapped and projections have to name the stored _id
+		MappingMongoConverter converter = configuredConverter();
+		Document fields = new QueryMapper(converter).getMappedFields(
+				new Document("questions._id", 1).append("questions.text", 1),
+				converter.getMappingContext().getRequiredPersistentEntity(Quiz.class));
+		assertEquals(new Document("questions._id", 1).append("questions.text", 1), fields);
+
+		Document stored = OptionMaskConverters.QuestionWriter.INSTANCE.convert(new Quiz.Question("q1", "Pick", "SINGLE_ANSWER",
+				List.of("a", "b"), List.of("1")));
+		Document projected = new Document("_id", "quiz1").append("questions",
+				List.of(new Document("_id", stored.get("_id")).append("text", stored.get("text"))));
+		Quiz quiz = converter.read(Quiz.class, projected);
+
+		assertEquals("q1", quiz.getQuestions().get(0).getId());
+		assertEquals("Pick", quiz.getQuestions().get(0).getText());
+	}
+
+	@Test
+	void questionRoundTripsThroughMask() {
+		Quiz.Question question = new Quiz.Question("q1", "Pick", "MULTIPLE_ANSWER",
+				List.of("a", "b", "c", "d"), List.of("3", "0"));
+
+		Document stored = OptionMaskConverters.QuestionWriter.INSTANCE.convert(question);
+		Quiz.Question read = OptionMaskConverters.QuestionReader.INSTANCE.convert(stored);
+
+		assertEquals(9, stored.get("correctMask"));
+		assertFalse(stored.containsKey("correctOptions"));
+		assertEquals("q1", stored.get("_id"));
+		assertEquals(List.of("0", "3"), read.getCorrectOptions());
+		assertEquals(question.getOptions(), read.getOptions());
+	}
+
+	@Test
+	void legacyListsAreStillRead() {
+		Document legacy = new Document("questionId", "q1")
+				.append("selectedOptions", List.of("1", "2"))
+				.append("correct", true);
+
+		QuizAttempt.QuestionResponse read = OptionMaskConverters.QuestionResponseReader.INSTANCE.convert(legacy);
+
+		assertEquals("q1", read.getQuestionId());
+		assertEquals(List.of("1", "2"), read.getSelectedOptions());
+		assertTrue(read.isCorrect());
+	}
+
+	@Test
+	void listsThatAreNotIndicesKeepTheLegacyForm() {
+		for (List<String> options : List.of(List.of("A"), List.of("01"), List.of("2", "2"), List.of("64"))) {
+			Document stored = OptionMaskConverters.QuestionResponseWriter.INSTANCE.convert(
+					new QuizAttempt.QuestionResponse("q1", options, false));
+
+			assertFalse(stored.containsKey("selectedMask"));
+			assertEquals(options, OptionMaskConverters.QuestionResponseReader.INSTANCE.convert(stored).getSelectedOptions());
+		}
+	}
+
+	@Test
+	void masksShrinkRealisticAttempts() {
+		// A 20 question quiz answered 200 times, half single and half multiple answer
+		Random random = new Random(42);
+		List<Document> legacy = new ArrayList<>();
+		List<Document> compact = new ArrayList<>();
+		for (int attempt = 0; attempt < 200; attempt++) {
+			for (int q = 0; q < 20; q++) {
+				QuizAttempt.QuestionResponse response = new QuizAttempt.QuestionResponse(
+						"8f14e45f-ceea-467f-a0e6-" + String.format("%012d", q),
+						randomOptions(random, q % 2 == 1), random.nextBoolean());
+				legacy.add(new Document("questionId", response.getQuestionId())
+						.append("selectedOptions", response.getSelectedOptions())
+						.append("correct", response.isCorrect()));
+				compact.add(OptionMaskConverters.QuestionResponseWriter.INSTANCE.convert(response));
+			}
+		}
+
+		int legacySize = bsonSize(legacy);
+		int compactSize = bsonSize(compact);
+
+		assertTrue(compactSize < legacySize * 0.9, legacySize + " -> " + compactSize);
+		for (int i = 0; i < legacy.size(); i++) {
+			assertEquals(OptionMaskConverters.QuestionResponseReader.INSTANCE.convert(legacy.get(i)),
+					OptionMaskConverters.QuestionResponseReader.INSTANCE.convert(compact.get(i)));
+		}
+	}
+}
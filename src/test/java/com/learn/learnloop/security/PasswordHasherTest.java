@@ -0,0 +1,79 @@
+package com.learn.learnloop.security;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PasswordHasherTest {
+
+	private PasswordHasher hasher;
+
+	private PasswordHasher start(PasswordEncoder encoder, int threads, int queueCapacity) {
+		hasher = new PasswordHasher();
+		ReflectionTestUtils.setField(hasher, "passwordEncoder", encoder);
+		ReflectionTestUtils.setField(hasher, "threads", threads);
+		ReflectionTestUtils.setField(hasher, "queueCapacity", queueCapacity);
+		hasher.start();
+		return hasher;
+	}
+
+	@AfterEach
+	void stop() {
+		hasher.stop();
+	}
+
+	@Test
+	void fullQueueFailsFastWithSaturated() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		BCryptPasswordEncoder blocking = new BCryptPasswordEncoder(4) {
+			@Override
+			public String encode(CharSequence rawPassword) {
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				return super.encode(rawPassword);
+			}
+		};
+		start(blocking, 1, 1);
+
+		CompletableFuture<String> running = hasher.encode("a");
+		CompletableFuture<String> queued = hasher.encode("b");
+		CompletableFuture<String> rejected = hasher.encode("c");
+
+		ExecutionException failure = assertThrows(ExecutionException.class, () -> rejected.get(1, TimeUnit.SECONDS));
+		assertTrue(failure.getCause() instanceof PasswordHasher.Saturated);
+		assertEquals(1L, hasher.getStats().get("rejected"));
+
+		release.countDown();
+		assertTrue(blocking.matches("a", running.get(5, TimeUnit.SECONDS)));
+		assertTrue(blocking.matches("b", queued.get(5, TimeUnit.SECONDS)));
+	}
+
+	@Test
+	void weakerHashIsUpgradedOnVerify() throws Exception {
+		start(new BCryptPasswordEncoder(5), 1, 4);
+		String weak = new BCryptPasswordEncoder(4).encode("secret");
+
+		PasswordHasher.Verification verification = hasher.verify("secret", weak).get(5, TimeUnit.SECONDS);
+
+		assertTrue(verification.isMatched());
+		assertTrue(verification.getUpgradedHash().startsWith("$2a$05$"));
+		assertFalse(hasher.verify("wrong", weak).get(5, TimeUnit.SECONDS).isMatched());
+		assertNull(hasher.verify("secret", verification.getUpgradedHash()).get(5, TimeUnit.SECONDS).getUpgradedHash());
+	}
+}
@@ -0,0 +1,51 @@
+package com.learn.learnloop.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TokenBucketsTest {
+
+	private static final long T0 = TimeUnit.SECONDS.toNanos(1000);
+
+	@Test
+	void burstThenRefillAtTheConfiguredRate() {
+		TokenBuckets buckets = new TokenBuckets(3, 1, TimeUnit.MINUTES, 100);
+
+		for (int i = 0; i < 3; i++) {
+			assertEquals(0, buckets.tryAcquire("10.0.0.1", T0));
+		}
+		assertEquals(TimeUnit.SECONDS.toNanos(20), buckets.tryAcquire("10.0.0.1", T0));
+		assertEquals(0, buckets.tryAcquire("10.0.0.2", T0));
+		assertEquals(0, buckets.tryAcquire("10.0.0.1", T0 + TimeUnit.SECONDS.toNanos(20)));
+	}
+
+	@Test
+	void idleKeysAreEvictedAndNewKeysShareABucketWhenFull() {
+		TokenBuckets buckets = new TokenBuckets(1, 1, TimeUnit.MINUTES, 2);
+
+		buckets.tryAcquire("a", T0);
+		buckets.tryAcquire("b", T0);
+		assertEquals(0, buckets.tryAcquire("c", T0));
+		assertEquals(TimeUnit.MINUTES.toNanos(1), buckets.tryAcquire("d", T0)); // c and d share the overflow bucket
+		assertEquals(3, buckets.size());
+
+		assertEquals(0, buckets.evictIdle(T0 + TimeUnit.SECONDS.toNanos(30)));
+		assertEquals(3, buckets.evictIdle(T0 + TimeUnit.MINUTES.toNanos(1)));
+		assertEquals(0, buckets.size());
+	}
+
+	@Test
+	void newKeysPastTheLimitShareABucketPerFallbackKey() {
+		TokenBuckets buckets = new TokenBuckets(1, 1, TimeUnit.MINUTES, 1);
+
+		buckets.tryAcquire("alice", "10.0.0.1", T0);
+		assertEquals(0, buckets.tryAcquire("bob", "10.0.0.1", T0));
+		assertEquals(TimeUnit.MINUTES.toNanos(1), buckets.tryAcquire("carol", "10.0.0.1", T0)); // bob and carol share 10.0.0.1's bucket
+		assertEquals(0, buckets.tryAcquire("dave", "10.0.0.2", T0)); // 2 * maxKeys tracked: the single overflow bucket
+		assertEquals(TimeUnit.MINUTES.toNanos(1), buckets.tryAcquire("erin", "10.0.0.3", T0));
+		assertEquals(3, buckets.size());
+	}
+}
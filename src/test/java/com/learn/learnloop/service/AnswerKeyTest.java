@@ -0,0 +1,70 @@
+package com.learn.learnloop.service;
+
+import com.learn.learnloop.model.Quiz;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AnswerKeyTest {
+
+	private static Quiz quiz(Quiz.Question... questions) {
+		Quiz quiz = new Quiz();
+		quiz.setId("quiz-1");
+		quiz.setUpdatedAt(LocalDateTime.of(2024, 1, 1, 12, 0));
+		quiz.setPassingScore(50);
+		quiz.setQuestions(new ArrayList<>(List.of(questions)));
+		return quiz;
+	}
+
+	private static Quiz.Question question(String id, String type, List<String> correctOptions) {
+		return new Quiz.Question(id, "Question " + id, type, List.of("a", "b", "c", "d"), correctOptions);
+	}
+
+	@Test
+	void singleChoiceAcceptsExactlyOneCorrectOption() {
+		AnswerKey key = AnswerKey.compile(quiz(question("q1", "MULTIPLE_CHOICE", List.of("2"))));
+		int index = key.indexOf("q1");
+
+		assertTrue(key.isCorrect(index, List.of("2")));
+		assertFalse(key.isCorrect(index, List.of("1")));
+		assertFalse(key.isCorrect(index, List.of("2", "1")));
+		assertFalse(key.isCorrect(index, List.of()));
+	}
+
+	@Test
+	void multipleAnswerRequiresTheExactSet() {
+		AnswerKey key = AnswerKey.compile(quiz(question("q1", "MULTIPLE_ANSWER", List.of("0", "3"))));
+		int index = key.indexOf("q1");
+
+		assertTrue(key.isCorrect(index, List.of("3", "0")));
+		assertFalse(key.isCorrect(index, List.of("0")));
+		assertFalse(key.isCorrect(index, List.of("0", "1", "3")));
+		assertFalse(key.isCorrect(index, List.of("0", "x")));
+	}
+
+	@Test
+	void unknownQuestionsAndVersionsAreDetected() {
+		Quiz quiz = quiz(question("q1", "MULTIPLE_CHOICE", List.of("0")), question("q2", "MULTIPLE_CHOICE", List.of("1")));
+		AnswerKey key = AnswerKey.compile(quiz);
+
+		assertEquals(2, key.getQuestionCount());
+		assertEquals(1, key.indexOf("q2"));
+		assertEquals(-1, key.indexOf("missing"));
+		assertTrue(key.isVersion(quiz.getUpdatedAt()));
+		assertFalse(key.isVersion(quiz.getUpdatedAt().plusSeconds(1)));
+	}
+
+	@Test
+	void nonNumericAnswerKeysFallBackToListComparison() {
+		AnswerKey key = AnswerKey.compile(quiz(question("q1", "MULTIPLE_ANSWER", List.of("yes", "no"))));
+
+		assertTrue(key.isCorrect(0, List.of("no", "yes")));
+		assertFalse(key.isCorrect(0, List.of("yes")));
+	}
+}
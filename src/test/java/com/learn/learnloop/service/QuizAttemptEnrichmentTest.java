@@ -0,0 +1,91 @@
+package com.learn.learnloop.service;
+
+import com.learn.learnloop.dto.QuizAttemptDTO;
+import com.learn.learnloop.model.Quiz;
+import com.learn.learnloop.model.QuizAttempt;
+import com.learn.learnloop.repository.QuizAttemptRepository;
+import com.learn.learnloop.repository.QuizRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class QuizAttemptEnrichmentTest {
+
+	@Mock
+	private QuizRepository quizRepository;
+
+	@Mock
+	private QuizAttemptRepository attemptRepository;
+
+	@Mock
+	private QuizStatisticsAggregator statisticsAggregator;
+
+	@Mock
+	private QuizSnapshotService snapshotService;
+
+	@InjectMocks
+	private QuizAttemptService attemptService;
+
+	private static Quiz quiz(String id) {
+		Quiz quiz = new Quiz();
+		quiz.setId(id);
+		quiz.setTitle("Quiz " + id);
+		quiz.setQuestions(new ArrayList<>(List.of(
+				new Quiz.Question("q1", id + " first", "MULTIPLE_CHOICE", null, null),
+				new Quiz.Question("q2", id + " second", "MULTIPLE_CHOICE", null, null))));
+		return quiz;
+	}
+
+	private static QuizAttempt attempt(String quizId) {
+		QuizAttempt attempt = new QuizAttempt();
+		attempt.setQuizId(quizId);
+		QuizAttempt.QuestionResponse response = new QuizAttempt.QuestionResponse();
+		response.setQuestionId("q2");
+		response.setSelectedOptions(List.of("0"));
+		attempt.setResponses(new ArrayList<>(List.of(response)));
+		return attempt;
+	}
+
+	@Test
+	void enrichesManyAttemptsWithOneQuizQuery() {
+		when(quizRepository.findTitlesAndQuestionTextsByIdIn(anyCollection()))
+				.thenReturn(List.of(quiz("a"), quiz("b")));
+
+		List<QuizAttempt> attempts = new ArrayList<>();
+		for (int i = 0; i < 300; i++) {
+			attempts.add(attempt(i % 2 == 0 ? "a" : "b"));
+		}
+
+		List<QuizAttemptDTO> dtos = attemptService.enrichQuizAttemptDTOs(attempts);
+
+		assertEquals(300, dtos.size());
+		assertEquals("Quiz a", dtos.get(0).getQuizTitle());
+		assertEquals("b second", dtos.get(1).getResponses().get(0).getQuestionText());
+		verify(quizRepository, times(1)).findTitlesAndQuestionTextsByIdIn(anyCollection());
+		verifyNoMoreInteractions(quizRepository);
+	}
+
+	@Test
+	void missingQuizLeavesTitleEmpty() {
+		when(quizRepository.findTitlesAndQuestionTextsByIdIn(anyCollection())).thenReturn(List.of());
+
+		QuizAttemptDTO dto = attemptService.enrichQuizAttemptDTO(attempt("deleted"));
+
+		assertEquals(null, dto.getQuizTitle());
+		verify(quizRepository, times(1)).findTitlesAndQuestionTextsByIdIn(anyCollection());
+		verifyNoMoreInteractions(quizRepository);
+	}
+}
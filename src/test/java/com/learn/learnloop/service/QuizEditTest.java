@@ -0,0 +1,155 @@
+package com.learn.learnloop.service;
+
+import com.learn.learnloop.dto.QuestionOrderUpdate;
+import com.learn.learnloop.dto.QuestionUpdate;
+import com.learn.learnloop.dto.QuizMetadataUpdate;
+import com.learn.learnloop.model.Quiz;
+import com.learn.learnloop.model.User;
+import com.learn.learnloop.repository.QuizRepository;
+import com.learn.learnloop.security.AuthenticatedUser;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+class QuizEditTest {
+
+	@Autowired
+	private QuizService quizService;
+
+	@Autowired
+	private QuizRepository quizRepository;
+
+	private AuthenticatedUser admin;
+	private String quizId;
+
+	@BeforeEach
+	void createQuiz() {
+		User user = new User();
+		user.setId("quiz-edit-test-admin");
+		user.setUsername("quiz-edit-test-admin");
+		user.setRole("ADMIN");
+		admin = new AuthenticatedUser(user);
+
+		Quiz quiz = new Quiz();
+		quiz.setTitle("Edit test");
+		quiz.setCategory("General Knowledge");
+		quiz.setCreatedBy(admin.getId());
+		quiz.setCreatedAt(LocalDateTime.now());
+		quiz.setUpdatedAt(LocalDateTime.now());
+		quiz.setQuestions(new ArrayList<>(List.of(
+				new Quiz.Question("q1", "One", "MULTIPLE_CHOICE", List.of("a", "b"), List.of("0")),
+				new Quiz.Question("q2", "Two", "MULTIPLE_CHOICE", List.of("a", "b"), List.of("1")))));
+		quiz.setQuestionCount(2);
+		quizId = quizRepository.save(quiz).getId();
+	}
+
+	@AfterEach
+	void deleteQuiz() {
+		quizRepository.deleteById(quizId);
+	}
+
+	private long version() {
+		return quizRepository.findById(quizId).orElseThrow().getVersion();
+	}
+
+	@Test
+	void updateMetadataChangesOnlyThePresentFields() {
+		long version = version();
+		QuizMetadataUpdate changes = new QuizMetadataUpdate();
+		changes.setTitle("Renamed");
+		changes.setVersion(version);
+
+		Quiz quiz = quizService.updateQuizMetadata(quizId, changes, admin);
+
+		assertEquals("Renamed", quiz.getTitle());
+		assertEquals("General Knowledge", quiz.getCategory());
+		assertEquals(version + 1, (long) quiz.getVersion());
+		assertEquals(2, quiz.getQuestions().size());
+	}
+
+	@Test
+	void addQuestionInsertsAtThePosition() {
+		long version = version();
+		QuestionUpdate changes = new QuestionUpdate();
+		changes.setText("Zero");
+		changes.setOptions(List.of("a", "b", "c"));
+		changes.setCorrectOptions(List.of("2"));
+		changes.setPosition(0);
+		changes.setVersion(version);
+
+		Quiz quiz = quizService.addQuestion(quizId, changes, admin);
+
+		assertEquals(3, quiz.getQuestionCount());
+		assertEquals("Zero", quiz.getQuestions().get(0).getText());
+		assertEquals(List.of("2"), quiz.getQuestions().get(0).getCorrectOptions());
+		assertEquals("q1", quiz.getQuestions().get(1).getId());
+		assertEquals(version + 1, (long) quiz.getVersion());
+	}
+
+	@Test
+	void updateQuestionRewritesOnlyThatQuestion() {
+		long version = version();
+		QuestionUpdate changes = new QuestionUpdate();
+		changes.setText("Two, edited");
+		changes.setVersion(version);
+
+		Quiz quiz = quizService.updateQuestion(quizId, "q2", changes, admin);
+
+		assertEquals("One", quiz.getQuestions().get(0).getText());
+		assertEquals("Two, edited", quiz.getQuestions().get(1).getText());
+		assertEquals(List.of("1"), quiz.getQuestions().get(1).getCorrectOptions());
+		assertEquals(version + 1, (long) quiz.getVersion());
+	}
+
+	@Test
+	void deleteQuestionPullsIt() {
+		long version = version();
+
+		Quiz quiz = quizService.deleteQuestion(quizId, "q1", version, admin);
+
+		assertEquals(1, quiz.getQuestionCount());
+		assertEquals("q2", quiz.getQuestions().get(0).getId());
+		assertEquals(version + 1, (long) quiz.getVersion());
+	}
+
+	@Test
+	void reorderQuestionsBumpsTheVersionOnce() {
+		long version = version();
+		QuestionOrderUpdate order = new QuestionOrderUpdate();
+		order.setQuestionIds(List.of("q2", "q1"));
+		order.setVersion(version);
+
+		Quiz quiz = quizService.reorderQuestions(quizId, order, admin);
+
+		assertEquals("q2", quiz.getQuestions().get(0).getId());
+		assertEquals("q1", quiz.getQuestions().get(1).getId());
+		assertEquals(version + 1, (long) quiz.getVersion());
+
+		order.setQuestionIds(List.of("q1"));
+		order.setVersion(quiz.getVersion());
+		assertThrows(IllegalArgumentException.class, () -> quizService.reorderQuestions(quizId, order, admin));
+	}
+
+	@Test
+	void editAgainstAStaleVersionIsRejected() {
+		long version = version();
+		QuizMetadataUpdate changes = new QuizMetadataUpdate();
+		changes.setTitle("First");
+		changes.setVersion(version);
+		quizService.updateQuizMetadata(quizId, changes, admin);
+
+		changes.setTitle("Second");
+		assertThrows(IllegalStateException.class, () -> quizService.updateQuizMetadata(quizId, changes, admin));
+		assertEquals("First", quizRepository.findById(quizId).orElseThrow().getTitle());
+	}
+}
@@ -0,0 +1,53 @@
+package com.learn.learnloop.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.learn.learnloop.dto.QuizDTO;
+import com.learn.learnloop.model.Quiz;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class QuizJsonCacheTest {
+
+	private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+	private static Quiz quiz() {
+		Quiz quiz = new Quiz();
+		quiz.setId("quiz-json-cache-test");
+		quiz.setVersion(3L);
+		quiz.setTitle("JSON cache test");
+		quiz.setCategory("General Knowledge");
+		quiz.setPublished(true);
+		quiz.setUpdatedAt(LocalDateTime.now());
+		List<Quiz.Question> questions = new ArrayList<>();
+		for (int i = 0; i < 3; i++) {
+			questions.add(new Quiz.Question("q" + i, "Question " + i, "MULTIPLE_CHOICE",
+					List.of("a", "b", "c", "d"), List.of(String.valueOf(i))));
+		}
+		quiz.setQuestions(questions);
+		quiz.setQuestionCount(questions.size());
+		return quiz;
+	}
+
+	@Test
+	void servesTheSameBytesAsEncodingPerRequest() throws Exception {
+		QuizJsonCache cache = new QuizJsonCache();
+		ReflectionTestUtils.setField(cache, "objectMapper", objectMapper);
+		ReflectionTestUtils.setField(cache, "maxEntries", 16);
+		Quiz quiz = quiz();
+
+		byte[] encoded = cache.put(quiz.getId(), false, "\"v3\"", QuizDTO.fromQuiz(quiz, false));
+
+		assertArrayEquals(objectMapper.writeValueAsBytes(QuizDTO.fromQuiz(quiz, false)), encoded);
+		assertSame(encoded, cache.get(quiz.getId(), false, "\"v3\""));
+		assertNull(cache.get(quiz.getId(), false, "\"v4\""));
+		assertNull(cache.get(quiz.getId(), true, "\"v3\""));
+	}
+}
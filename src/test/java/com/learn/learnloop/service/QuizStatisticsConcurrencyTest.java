@@ -0,0 +1,93 @@
+package com.learn.learnloop.service;
+
+import com.learn.learnloop.model.Quiz;
+import com.learn.learnloop.repository.QuizRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+class QuizStatisticsConcurrencyTest {
+
+	private static final int SUBMITTERS = 64;
+	private static final int SUBMISSIONS_PER_SUBMITTER = 10;
+
+	@Autowired
+	private QuizStatisticsAggregator statisticsAggregator;
+
+	@Autowired
+	private QuizRepository quizRepository;
+
+	private String quizId;
+
+	@BeforeEach
+	void createQuiz() {
+		Quiz quiz = new Quiz();
+		quiz.setTitle("Statistics concurrency test");
+		quiz.setCategory("General Knowledge");
+		quiz.setCreatedAt(LocalDateTime.now());
+		quiz.setUpdatedAt(LocalDateTime.now());
+		quizId = quizRepository.save(quiz).getId();
+	}
+
+	@AfterEach
+	void deleteQuiz() {
+		quizRepository.deleteById(quizId);
+	}
+
+	@Test
+	void parallelSubmissionsLoseNoUpdates() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(SUBMITTERS + 1);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<?>> futures = new ArrayList<>();
+		try {
+			for (int i = 0; i < SUBMITTERS; i++) {
+				final boolean passed = i % 2 == 0;
+				futures.add(executor.submit(() -> {
+					start.await();
+					for (int j = 0; j < SUBMISSIONS_PER_SUBMITTER; j++) {
+						statisticsAggregator.record(quizId, passed ? 80 : 40, passed);
+					}
+					return null;
+				}));
+			}
+			// Flushes racing the submissions must not lose or double count any of them
+			Future<?> flusher = executor.submit(() -> {
+				start.await();
+				for (int j = 0; j < SUBMISSIONS_PER_SUBMITTER; j++) {
+					statisticsAggregator.flush();
+				}
+				return null;
+			});
+			start.countDown();
+			for (Future<?> future : futures) {
+				future.get();
+			}
+			flusher.get();
+		} finally {
+			executor.shutdown();
+		}
+		statisticsAggregator.flush();
+
+		int total = SUBMITTERS * SUBMISSIONS_PER_SUBMITTER;
+		Quiz quiz = quizRepository.findById(quizId).orElseThrow();
+		assertEquals(total, quiz.getTotalAttempts());
+		assertEquals(total / 2, quiz.getPassCount());
+		assertEquals((long) (total / 2) * 80 + (long) (total / 2) * 40, quiz.getScoreSum());
+		assertEquals(60.0, quiz.getAverageScore(), 0.0001);
+		assertEquals(Long.valueOf(total / 2), quiz.getScoreHistogram().get(String.valueOf(ScoreHistogram.bucket(80))));
+		assertEquals(Long.valueOf(total / 2), quiz.getScoreHistogram().get(String.valueOf(ScoreHistogram.bucket(40))));
+	}
+}
@@ -0,0 +1,61 @@
+package com.learn.learnloop.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RankedScoresTest {
+
+	private static List<String> users(List<RankedScores.Entry> entries) {
+		return entries.stream().map(RankedScores.Entry::getUserId).collect(Collectors.toList());
+	}
+
+	@Test
+	void ranksByScoreThenTimeSpent() {
+		RankedScores board = new RankedScores();
+		board.offer("slow", 90, 300);
+		board.offer("fast", 90, 120);
+		board.offer("low", 60, 60);
+		board.offer("top", 100, 500);
+
+		assertEquals(List.of("top", "fast", "slow", "low"), users(board.top(10)));
+		assertEquals(List.of("top", "fast"), users(board.top(2)));
+		assertEquals(1, board.rankOf("top"));
+		assertEquals(3, board.rankOf("slow"));
+		assertEquals(4, board.rankOf("low"));
+		assertEquals(0, board.rankOf("nobody"));
+	}
+
+	@Test
+	void keepsOnlyEachUsersBestResult() {
+		RankedScores board = new RankedScores();
+		assertTrue(board.offer("a", 70, 100));
+		assertTrue(board.offer("b", 80, 100));
+		assertFalse(board.offer("a", 60, 50));
+		assertTrue(board.offer("a", 90, 200));
+
+		assertEquals(2, board.size());
+		assertEquals(1, board.rankOf("a"));
+		assertEquals(90, board.get("a").getScore());
+		assertEquals(2, board.rankOf("b"));
+	}
+
+	@Test
+	void ranksStayConsistentAcrossManyUpdates() {
+		RankedScores board = new RankedScores();
+		for (int i = 0; i < 5000; i++) {
+			board.offer("u" + (i % 1000), i % 101, 1000 - i % 1000);
+		}
+
+		List<RankedScores.Entry> all = board.top(Integer.MAX_VALUE);
+		assertEquals(1000, all.size());
+		for (int i = 0; i < all.size(); i++) {
+			assertEquals(i + 1, board.rankOf(all.get(i).getUserId()));
+		}
+	}
+}
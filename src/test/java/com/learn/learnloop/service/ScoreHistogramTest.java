@@ -0,0 +1,36 @@
+package com.learn.learnloop.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ScoreHistogramTest {
+
+	@Test
+	void percentileCountsLowerScoresAndHalfOfTies() {
+		Map<String, Long> histogram = Map.of("40", 2L, "60", 4L, "90", 2L, "100", 2L);
+
+		assertEquals(10.0, ScoreHistogram.percentile(histogram, null, 40));
+		assertEquals(40.0, ScoreHistogram.percentile(histogram, null, 60));
+		assertEquals(90.0, ScoreHistogram.percentile(histogram, null, 100));
+		assertEquals(20.0, ScoreHistogram.percentile(histogram, null, 50));
+	}
+
+	@Test
+	void pendingCountsAreIncluded() {
+		long[] pending = new long[ScoreHistogram.BUCKETS];
+		pending[80] = 1;
+
+		assertEquals(50.0, ScoreHistogram.percentile(Map.of(), pending, 80));
+		assertEquals(75.0, ScoreHistogram.percentile(Map.of("20", 1L), pending, 80));
+	}
+
+	@Test
+	void emptyHistogramHasNoPercentile() {
+		assertNull(ScoreHistogram.percentile(Map.of(), null, 50));
+		assertNull(ScoreHistogram.percentile(null, new long[ScoreHistogram.BUCKETS], 50));
+	}
+}